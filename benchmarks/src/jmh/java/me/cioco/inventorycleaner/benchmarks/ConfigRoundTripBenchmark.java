@@ -0,0 +1,71 @@
+package me.cioco.inventorycleaner.benchmarks;
+
+import me.cioco.inventorycleaner.core.BinaryProfileCodec;
+import me.cioco.inventorycleaner.core.ConfigSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConfigRoundTripBenchmark {
+
+    @Param({"10", "1000", "50000"})
+    public int entries;
+
+    private ConfigSnapshot snapshot;
+    private int[] rawIds;
+    private byte[] propertiesBytes;
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setup() throws IOException {
+        List<String> ids = Fixtures.itemIds(entries);
+        rawIds = new int[entries];
+        for (int i = 0; i < entries; i++) rawIds[i] = i;
+        snapshot = new ConfigSnapshot("bench", true, false, false, false, 20, "BLACKLIST", ids, 0b111L, List.of(), List.of(), List.of(),
+                false, 1, 4, 1, false, List.of());
+        propertiesBytes = saveProperties();
+        binaryBytes = saveBinary();
+    }
+
+    @Benchmark
+    public byte[] saveProperties() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        snapshot.writeProperties(out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public ConfigSnapshot loadProperties() throws IOException {
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(propertiesBytes));
+        return ConfigSnapshot.fromProperties("bench", properties);
+    }
+
+    @Benchmark
+    public byte[] saveBinary() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryProfileCodec.write(out, snapshot, rawIds, 1234L);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public BinaryProfileCodec.Profile loadBinary() throws IOException {
+        return BinaryProfileCodec.read(ByteBuffer.wrap(binaryBytes), "bench");
+    }
+}
@@ -0,0 +1,35 @@
+package me.cioco.inventorycleaner.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+final class Fixtures {
+
+    private static final String[] WORDS = {
+            "dirt", "stone", "cobblestone", "diamond", "iron", "gold", "copper", "ore", "ingot", "block",
+            "sword", "pickaxe", "axe", "shovel", "hoe", "helmet", "chestplate", "leggings", "boots", "bow",
+            "arrow", "flower", "sapling", "log", "planks", "slab", "stairs", "wall", "door", "trapdoor"
+    };
+
+    private Fixtures() {
+    }
+
+    static List<String> itemIds(int count) {
+        List<String> ids = new ArrayList<>(count);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < count; i++) {
+            String namespace = i < 1300 ? "minecraft" : "mod" + (i % 97);
+            String path = WORDS[random.nextInt(WORDS.length)] + "_" + WORDS[random.nextInt(WORDS.length)] + "_" + i;
+            ids.add(namespace + ":" + path);
+        }
+        return ids;
+    }
+
+    static int[] randomRawIds(int count, int registrySize, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) ids[i] = random.nextInt(registrySize);
+        return ids;
+    }
+}
@@ -0,0 +1,116 @@
+package me.cioco.inventorycleaner.benchmarks;
+
+import me.cioco.inventorycleaner.core.ComponentRules;
+import me.cioco.inventorycleaner.core.ItemRule;
+import me.cioco.inventorycleaner.core.QuotaCounter;
+import me.cioco.inventorycleaner.core.RuleTable;
+import me.cioco.inventorycleaner.core.SlotSelector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of deciding all 36 inventory slots, compared against the boxed HashSet lookups the cleaner used to do.
+ * {@code componentRules} adds one enchantment/durability rule for a tenth of the slot items on top of the blacklist.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RuleDecisionBenchmark {
+
+    @Param({"1000", "30000"})
+    public int registrySize;
+
+    @Param({"10", "1000", "20000"})
+    public int listSize;
+
+    private int[] slotItems;
+    private RuleTable blacklist;
+    private RuleTable whitelist;
+    private RuleTable withComponentRules;
+    private SlotSelector.SlotView slotView;
+    private final Set<Integer> listedBaseline = new HashSet<>();
+    private final Set<Integer> lockedBaseline = new HashSet<>();
+
+    @Setup
+    public void setup() {
+        int[] listed = Fixtures.randomRawIds(listSize, registrySize, 1);
+        int[] locked = {0, 4, 8, 35};
+        blacklist = RuleTable.compile(listed, locked, false);
+        whitelist = RuleTable.compile(listed, locked, true);
+        slotItems = Fixtures.randomRawIds(36, registrySize, 2);
+
+        List<ItemRule> rules = new ArrayList<>();
+        for (int slot = 0; slot < 36; slot += 10)
+            rules.add(ItemRule.parse("throw item_" + slotItems[slot] + " !enchanted damage>=50"));
+        ComponentRules compiled = ComponentRules.compile(rules,
+                id -> Integer.parseInt(id.substring(id.indexOf('_') + 1)), id -> -1);
+        withComponentRules = RuleTable.compile(listed, locked, false, compiled, QuotaCounter.NONE);
+        slotView = new SlotSelector.SlotView() {
+            @Override
+            public int rawItemId(int slotId) {
+                return slotItems[slotId];
+            }
+
+            @Override
+            public int damage(int slotId) {
+                return slotId * 7;
+            }
+
+            @Override
+            public int maxDamage(int slotId) {
+                return 250;
+            }
+        };
+
+        listedBaseline.clear();
+        for (int id : listed) listedBaseline.add(id);
+        lockedBaseline.clear();
+        for (int slot : locked) lockedBaseline.add(slot);
+    }
+
+    @Benchmark
+    public int blacklist() {
+        int throwable = 0;
+        for (int slot = 0; slot < 36; slot++)
+            if (blacklist.shouldThrow(slot, slotItems[slot])) throwable++;
+        return throwable;
+    }
+
+    @Benchmark
+    public int whitelist() {
+        int throwable = 0;
+        for (int slot = 0; slot < 36; slot++)
+            if (whitelist.shouldThrow(slot, slotItems[slot])) throwable++;
+        return throwable;
+    }
+
+    @Benchmark
+    public int componentRules() {
+        int throwable = 0;
+        for (int slot = 0; slot < 36; slot++)
+            if (withComponentRules.shouldThrow(slot, slotItems[slot], slotView, slot)) throwable++;
+        return throwable;
+    }
+
+    @Benchmark
+    public int hashSetBaseline() {
+        int throwable = 0;
+        for (int slot = 0; slot < 36; slot++) {
+            if (lockedBaseline.contains(slot)) continue;
+            if (listedBaseline.contains(slotItems[slot])) throwable++;
+        }
+        return throwable;
+    }
+}
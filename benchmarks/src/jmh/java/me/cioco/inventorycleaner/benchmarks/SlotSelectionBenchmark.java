@@ -0,0 +1,68 @@
+package me.cioco.inventorycleaner.benchmarks;
+
+import me.cioco.inventorycleaner.core.DirtySlotTracker;
+import me.cioco.inventorycleaner.core.RuleTable;
+import me.cioco.inventorycleaner.core.SlotSelector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SlotSelectionBenchmark {
+
+    @Param({"1000", "30000"})
+    public int registrySize;
+
+    @Param({"100", "5000"})
+    public int listSize;
+
+    private final DirtySlotTracker tracker = new DirtySlotTracker(9, 36);
+    private final int[] slotItems = new int[45];
+    private RuleTable keepAll;
+    private RuleTable throwLast;
+    private final SlotSelector.SlotView view = slotId -> slotItems[slotId];
+
+    @Setup
+    public void setup() {
+        int[] listed = Fixtures.randomRawIds(listSize, registrySize, 1);
+        keepAll = RuleTable.compile(listed, new int[]{0, 1, 2}, false);
+
+        for (int i = 0; i < slotItems.length; i++) slotItems[i] = registrySize + i;
+        int[] withLast = java.util.Arrays.copyOf(listed, listSize + 1);
+        withLast[listSize] = slotItems[44];
+        throwLast = RuleTable.compile(withLast, new int[]{0, 1, 2}, false);
+        slotItems[43] = -1;
+    }
+
+    @Benchmark
+    public int idleTick() {
+        return tracker.isIdle() ? -1 : SlotSelector.findThrowable(tracker, keepAll, view);
+    }
+
+    @Benchmark
+    public int fullScanNothingToThrow() {
+        tracker.markAll();
+        return SlotSelector.findThrowable(tracker, keepAll, view);
+    }
+
+    @Benchmark
+    public int fullScanThrowLastSlot() {
+        tracker.markAll();
+        return SlotSelector.findThrowable(tracker, throwLast, view);
+    }
+
+    @Benchmark
+    public int singleDirtySlot() {
+        tracker.markSlot(20);
+        return SlotSelector.findThrowable(tracker, keepAll, view);
+    }
+}
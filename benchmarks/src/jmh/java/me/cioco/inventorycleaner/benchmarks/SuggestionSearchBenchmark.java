@@ -0,0 +1,79 @@
+package me.cioco.inventorycleaner.benchmarks;
+
+import me.cioco.inventorycleaner.core.ItemSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Suggestion search as used by the item search box, against the full-stream approach it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SuggestionSearchBenchmark {
+
+    private static final String[] TYPING = {"d", "di", "dia", "diam", "diamo", "diamond"};
+
+    @Param({"1300", "30000"})
+    public int registrySize;
+
+    private List<String> ids;
+    private ItemSearchIndex index;
+
+    @Setup
+    public void setup() {
+        ids = Fixtures.itemIds(registrySize);
+        index = new ItemSearchIndex(ids);
+    }
+
+    @Benchmark
+    public List<String> singleQuery() {
+        index.search("", 40);
+        return index.search("ingot", 40);
+    }
+
+    @Benchmark
+    public int typingSequence() {
+        int total = 0;
+        for (String query : TYPING) total += index.search(query, 40).size();
+        index.search("", 40);
+        return total;
+    }
+
+    @Benchmark
+    public int typingSequenceStreamBaseline() {
+        int total = 0;
+        for (String query : TYPING) total += streamSearch(query).size();
+        return total;
+    }
+
+    private List<String> streamSearch(String lq) {
+        return ids.stream()
+                .filter(id -> id.substring(id.indexOf(':') + 1).contains(lq) || id.contains(lq))
+                .map(id -> id.substring(id.indexOf(':') + 1))
+                .distinct()
+                .sorted((a, b) -> {
+                    boolean aS = a.startsWith(lq), bS = b.startsWith(lq);
+                    if (aS && !bS) return -1;
+                    if (!aS && bS) return 1;
+                    return a.compareTo(b);
+                })
+                .limit(40)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public ItemSearchIndex buildIndex() {
+        return new ItemSearchIndex(ids);
+    }
+}
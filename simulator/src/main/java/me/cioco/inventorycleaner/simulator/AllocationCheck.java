@@ -0,0 +1,240 @@
+package me.cioco.inventorycleaner.simulator;
+
+import me.cioco.inventorycleaner.core.AdaptiveThrowLimiter;
+import me.cioco.inventorycleaner.core.CleanerLoop;
+import me.cioco.inventorycleaner.core.CleanerTelemetry;
+import me.cioco.inventorycleaner.core.CleanerTick;
+import me.cioco.inventorycleaner.core.ComponentRules;
+import me.cioco.inventorycleaner.core.ContainerScanner;
+import me.cioco.inventorycleaner.core.DirtySlotTracker;
+import me.cioco.inventorycleaner.core.ItemQuota;
+import me.cioco.inventorycleaner.core.ItemRule;
+import me.cioco.inventorycleaner.core.QuotaCounter;
+import me.cioco.inventorycleaner.core.RuleTable;
+import me.cioco.inventorycleaner.core.SlotSelector;
+import me.cioco.inventorycleaner.core.ThrowLog;
+import me.cioco.inventorycleaner.core.TickDispatcher;
+import me.cioco.inventorycleaner.core.jfr.ThrowEvent;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures the bytes allocated per client tick on the cleaner's hot paths and fails when a scenario exceeds
+ * its budget. Each scenario replays what {@code InventoryCleaner.cleanInventory} does per tick through the
+ * same {@link TickDispatcher} and {@link CleanerTick}, using the thread allocation counter after a JIT warm-up.
+ * Run by {@code ./gradlew :simulator:allocationCheck}, which {@code check} depends on.
+ */
+public class AllocationCheck {
+
+    private static final long WARMUP_TICKS = 300_000;
+    private static final long MEASURED_TICKS = 1_000_000;
+    private static final long TICK_NANOS = AdaptiveThrowLimiter.NANOS_PER_TICK;
+    private static final int LISTED_ITEMS = 100;
+    private static final int QUOTA_ITEM = LISTED_ITEMS;
+    private static final int CONTAINER_SLOTS = 2000;
+
+    private static final long IDLE_BUDGET_BYTES = 0;
+    private static final long THROW_BUDGET_BYTES = 0;
+
+    public static void main(String[] args) {
+        boolean passed = run("idle tick", IDLE_BUDGET_BYTES, new InventoryTick(idleWorld(), false));
+        passed &= run("idle tick, adaptive", IDLE_BUDGET_BYTES, new InventoryTick(idleWorld(), true));
+        passed &= run("throw tick", THROW_BUDGET_BYTES, new InventoryTick(junkWorld(), false));
+        passed &= run("throw tick, adaptive", THROW_BUDGET_BYTES, new InventoryTick(junkWorld(), true));
+        passed &= run("full inventory, adaptive", IDLE_BUDGET_BYTES, new InventoryTick(fullWorld(), true));
+        passed &= run("container tick", THROW_BUDGET_BYTES, new ContainerTick());
+        if (!passed) {
+            System.out.println("Allocation budget exceeded");
+            System.exit(1);
+        }
+    }
+
+    private static boolean run(String name, long budgetBytes, Scenario scenario) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        TickDispatcher<Scenario> dispatcher = new TickDispatcher<>();
+        dispatcher.register("clean", 1_000_000L, 20, Scenario::clean);
+
+        long tick = 0;
+        for (; tick < WARMUP_TICKS; tick++) tick(dispatcher, scenario, tick);
+
+        long throwsBefore = scenario.throwCount();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (long end = tick + MEASURED_TICKS; tick < end; tick++) tick(dispatcher, scenario, tick);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        long thrown = scenario.throwCount() - throwsBefore;
+
+        double perTick = (double) allocated / MEASURED_TICKS;
+        boolean ok = perTick <= budgetBytes;
+        System.out.printf(Locale.ROOT, "%-26s %s %10.4f bytes/tick (budget %d), %,d throws, %,d bytes total%n",
+                name, ok ? "ok  " : "FAIL", perTick, budgetBytes, thrown, allocated);
+        return ok;
+    }
+
+    private static void tick(TickDispatcher<Scenario> dispatcher, Scenario scenario, long tick) {
+        long now = tick * TICK_NANOS;
+        scenario.advance(tick);
+        dispatcher.onTickStart(now);
+        dispatcher.onTickEnd(scenario, now + 1_000_000L);
+    }
+
+    private static SimulationConfig idleWorld() {
+        return SimulationConfig.parse(new String[]{"--drop-rate=0"});
+    }
+
+    private static SimulationConfig junkWorld() {
+        return SimulationConfig.parse(new String[]{"--drop-rate=2", "--junk-ratio=1", "--delay=1",
+                "--throws-per-tick=4", "--latency=2"});
+    }
+
+    private static SimulationConfig fullWorld() {
+        return SimulationConfig.parse(new String[]{"--drop-rate=0.5", "--junk-ratio=0.7", "--delay=1",
+                "--throws-per-tick=4", "--latency=2"});
+    }
+
+    private static RuleTable rules() {
+        int[] listed = new int[LISTED_ITEMS];
+        for (int i = 0; i < listed.length; i++) listed[i] = i;
+        ComponentRules componentRules = ComponentRules.compile(List.of(ItemRule.parse("keep * named")),
+                AllocationCheck::rawId, id -> -1);
+        QuotaCounter quotas = QuotaCounter.compile(List.of(ItemQuota.parse("item" + QUOTA_ITEM + "=128")),
+                AllocationCheck::rawId, tag -> new int[0]);
+        return RuleTable.compile(listed, new int[]{8}, false, componentRules, quotas);
+    }
+
+    private static int rawId(String id) {
+        int start = id.indexOf(":item");
+        return start < 0 ? -1 : Integer.parseInt(id.substring(start + 5));
+    }
+
+    /**
+     * One tick of cleaner work, run as the dispatcher's task.
+     */
+    private interface Scenario {
+        void advance(long tick);
+
+        void clean();
+
+        long throwCount();
+    }
+
+    /**
+     * The player inventory path: plan, throw, telemetry, throw log and the follow-up queue check.
+     */
+    private static final class InventoryTick implements Scenario {
+
+        private final DirtySlotTracker tracker = new DirtySlotTracker(SimulatedWorld.firstSlot(), 36);
+        private final CleanerLoop loop = new CleanerLoop(tracker);
+        private final CleanerTelemetry telemetry = new CleanerTelemetry(SimulatedWorld.firstSlot(), 36);
+        private final AdaptiveThrowLimiter limiter = new AdaptiveThrowLimiter();
+        private final CleanerTick cleanerTick = new CleanerTick(tracker, loop, telemetry, limiter);
+        private final ThrowLog throwLog = new ThrowLog(Path.of("build", "allocation-check.log"), id -> "item" + id);
+        private final RuleTable rules = rules();
+        private final SimulationConfig config;
+        private final SimulatedWorld world;
+        private final boolean adaptive;
+        private final int[] slots;
+        private long tick;
+        private long thrown;
+
+        InventoryTick(SimulationConfig config, boolean adaptive) {
+            this.config = config;
+            this.adaptive = adaptive;
+            this.slots = new int[config.throwsPerTick()];
+            int[] keep = new int[config.itemTypes()];
+            int[] junk = new int[config.itemTypes()];
+            for (int i = 0; i < keep.length; i++) {
+                keep[i] = QUOTA_ITEM + i;
+                junk[i] = i;
+            }
+            this.world = new SimulatedWorld(config, tracker, junk, keep);
+            limiter.configure(config.minDelayTicks(), config.maxOutstanding());
+            limiter.setAckListener(telemetry::onThrowAck);
+            if (adaptive) world.setLimiter(limiter);
+        }
+
+        @Override
+        public void advance(long tick) {
+            this.tick = tick;
+            world.tick(tick);
+        }
+
+        @Override
+        public void clean() {
+            long now = tick * TICK_NANOS;
+            int count = cleanerTick.run(rules, world, adaptive, config.throwDelayTicks(), slots.length,
+                    world.revision(), now, slots);
+            if (count < 0) return;
+
+            for (int i = 0; i < count; i++) {
+                int slotId = slots[i];
+                ThrowEvent throwEvent = ThrowEvent.isRecording() ? new ThrowEvent() : null;
+                if (throwEvent != null) throwEvent.begin();
+                throwLog.record(world.rawItemId(slotId), 1, now / 1_000_000L);
+                world.clickThrow(tick, slotId);
+                telemetry.onThrow(slotId, now);
+                if (throwEvent != null) {
+                    throwEvent.end();
+                    if (throwEvent.shouldCommit()) throwEvent.commit();
+                }
+            }
+            thrown += count;
+            cleanerTick.planFollowUp(rules, world, adaptive);
+        }
+
+        @Override
+        public long throwCount() {
+            return thrown;
+        }
+    }
+
+    /**
+     * The open container path: a large chest that keeps receiving junk, scanned within the slot budget.
+     */
+    private static final class ContainerTick implements Scenario, SlotSelector.SlotView {
+
+        private final ContainerScanner scanner = new ContainerScanner(128);
+        private final RuleTable rules = rules();
+        private final int[] items = new int[CONTAINER_SLOTS];
+        private int nextFill = 0;
+        private long thrown;
+
+        ContainerTick() {
+            for (int i = 0; i < items.length; i++) items[i] = i % 3 == 0 ? i % LISTED_ITEMS : QUOTA_ITEM;
+            scanner.reset(items.length);
+        }
+
+        @Override
+        public int rawItemId(int slotId) {
+            return items[slotId];
+        }
+
+        @Override
+        public void advance(long tick) {
+            for (int i = 0; i < 3; i++) {
+                nextFill = (nextFill + 677) % items.length;
+                items[nextFill] = nextFill % LISTED_ITEMS;
+                scanner.markSlot(nextFill);
+            }
+        }
+
+        @Override
+        public void clean() {
+            scanner.beginTick();
+            for (int i = 0; i < 4; i++) {
+                int slotId = scanner.next(rules, this);
+                if (slotId < 0) break;
+                items[slotId] = -1;
+                scanner.markSlot(slotId);
+                thrown++;
+            }
+        }
+
+        @Override
+        public long throwCount() {
+            return thrown;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package me.cioco.inventorycleaner.simulator;
+
+import me.cioco.inventorycleaner.core.AdaptiveThrowLimiter;
+import me.cioco.inventorycleaner.core.DirtySlotTracker;
+import me.cioco.inventorycleaner.core.SlotSelector;
+
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic player inventory with a server-side copy, a client-side copy and a delayed packet link
+ * in each direction. Pickups are inserted on the server the way vanilla does (merge, then hotbar,
+ * then main inventory). Throws are predicted on the client and carry the revision of the last server
+ * update the client saw. Like a vanilla server, the simulated one stays silent when that revision is
+ * current, since the prediction then matches, and resyncs the whole inventory when it is stale. With a
+ * server rate limit, throws beyond that many per second are rejected with a resync as well.
+ */
+class SimulatedWorld implements SlotSelector.SlotView {
+
+    private static final int SLOTS = 45;
+    private static final int FIRST_SLOT = 9;
+    private static final int MAX_STACK = 64;
+    private static final int QUEUE_CAPACITY = 1 << 14;
+    private static final int RESYNC = 1 << 30;
+    private static final int RESYNC_SNAPSHOTS = 256;
+
+    private final SimulationConfig config;
+    private final DirtySlotTracker tracker;
+    private final SplittableRandom random;
+    private final int[] junkTypes;
+    private final int[] keepTypes;
+
+    private final int[] serverItem = new int[SLOTS];
+    private final int[] serverCount = new int[SLOTS];
+    private final int[] clientItem = new int[SLOTS];
+    private final int[] clientCount = new int[SLOTS];
+    private final long[] junkSince = new long[SLOTS];
+    private final int[] snapshotItems = new int[RESYNC_SNAPSHOTS * SLOTS];
+    private final int[] snapshotCounts = new int[RESYNC_SNAPSHOTS * SLOTS];
+    private int snapshots = 0;
+
+    private final PacketQueue uplink = new PacketQueue();
+    private final PacketQueue downlink = new PacketQueue();
+    private final long[] throwSentAt = new long[SLOTS];
+    private final long[] recentServerThrows = new long[64];
+    private long acceptedServerThrows = 0;
+    private int serverRevision = 0;
+    private int clientRevision = 0;
+    private AdaptiveThrowLimiter limiter;
+
+    long pickups;
+    long missedPickups;
+    long cleanedStacks;
+    long timeToCleanSum;
+    long timeToCleanMax;
+    long accepts;
+    long acceptLatencySum;
+    long rejectedThrows;
+
+    SimulatedWorld(SimulationConfig config, DirtySlotTracker tracker, int[] junkTypes, int[] keepTypes) {
+        this.config = config;
+        this.tracker = tracker;
+        this.random = new SplittableRandom(config.seed());
+        this.junkTypes = junkTypes;
+        this.keepTypes = keepTypes;
+        for (int i = 0; i < SLOTS; i++) {
+            serverItem[i] = -1;
+            clientItem[i] = -1;
+            junkSince[i] = -1;
+            throwSentAt[i] = -1;
+        }
+    }
+
+    void setLimiter(AdaptiveThrowLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public int rawItemId(int slotId) {
+        return clientItem[slotId];
+    }
+
+    @Override
+    public int count(int slotId) {
+        return clientCount[slotId];
+    }
+
+    /**
+     * Revision of the last server update the client received, sent along with every click.
+     */
+    int revision() {
+        return clientRevision;
+    }
+
+    void tick(long now) {
+        if (limiter != null)
+            limiter.onPing((config.uplinkLatency() + config.downlinkLatency()) * AdaptiveThrowLimiter.NANOS_PER_TICK);
+        while (downlink.isDue(now)) {
+            int slot = downlink.slot();
+            int item = downlink.item();
+            clientRevision = downlink.revision();
+            if (item >= 0 && (item & RESYNC) != 0) {
+                downlink.pop();
+                int snapshot = downlink.count() * SLOTS;
+                System.arraycopy(snapshotItems, snapshot, clientItem, 0, SLOTS);
+                System.arraycopy(snapshotCounts, snapshot, clientCount, 0, SLOTS);
+                tracker.markAll();
+                if (limiter != null) limiter.onResync(clientRevision, this, now * AdaptiveThrowLimiter.NANOS_PER_TICK);
+                continue;
+            }
+            clientItem[slot] = item;
+            clientCount[slot] = downlink.count();
+            tracker.markSlot(slot);
+            if (limiter != null) {
+                limiter.onRevision(clientRevision);
+                limiter.onSlotUpdate(slot, item < 0, now * AdaptiveThrowLimiter.NANOS_PER_TICK);
+            }
+            downlink.pop();
+        }
+
+        while (uplink.isDue(now)) {
+            serverThrow(now, uplink.slot(), uplink.revision());
+            uplink.pop();
+        }
+
+        double drops = config.dropsPerTick();
+        int count = (int) drops;
+        if (random.nextDouble() < drops - count) count++;
+        for (int i = 0; i < count; i++) serverPickup(now);
+    }
+
+    void clickThrow(long now, int slotId) {
+        clientItem[slotId] = -1;
+        clientCount[slotId] = 0;
+        tracker.markSlot(slotId);
+        throwSentAt[slotId] = now;
+        uplink.push(now + config.uplinkLatency(), slotId, -1, 0, clientRevision);
+    }
+
+    private void serverPickup(long now) {
+        boolean junk = random.nextDouble() < config.junkRatio();
+        int[] types = junk ? junkTypes : keepTypes;
+        int item = types[random.nextInt(types.length)];
+        pickups++;
+
+        int target = -1;
+        for (int i = 0; i < 36 && target < 0; i++) {
+            int slot = vanillaToHandler(i);
+            if (serverItem[slot] == item && serverCount[slot] < MAX_STACK) target = slot;
+        }
+        for (int i = 0; i < 36 && target < 0; i++) {
+            int slot = vanillaToHandler(i);
+            if (serverItem[slot] < 0) target = slot;
+        }
+        if (target < 0) {
+            missedPickups++;
+            return;
+        }
+
+        serverItem[target] = item;
+        serverCount[target]++;
+        if (junk && junkSince[target] < 0) junkSince[target] = now;
+        downlink.push(now + config.downlinkLatency(), target, item, serverCount[target], ++serverRevision);
+    }
+
+    private void serverThrow(long now, int slot, int revision) {
+        int limit = Math.min(config.serverRateLimit(), recentServerThrows.length);
+        if (limit > 0) {
+            if (acceptedServerThrows >= limit
+                    && now - recentServerThrows[(int) ((acceptedServerThrows - limit) % recentServerThrows.length)] < 20) {
+                rejectedThrows++;
+                throwSentAt[slot] = -1;
+                pushResync(now);
+                return;
+            }
+            recentServerThrows[(int) (acceptedServerThrows++ % recentServerThrows.length)] = now;
+        }
+        if (throwSentAt[slot] >= 0) {
+            accepts++;
+            acceptLatencySum += now - throwSentAt[slot];
+            throwSentAt[slot] = -1;
+        }
+        if (junkSince[slot] >= 0) {
+            long elapsed = now - junkSince[slot];
+            cleanedStacks++;
+            timeToCleanSum += elapsed;
+            timeToCleanMax = Math.max(timeToCleanMax, elapsed);
+            junkSince[slot] = -1;
+        }
+        serverItem[slot] = -1;
+        serverCount[slot] = 0;
+        if (revision != serverRevision) pushResync(now);
+    }
+
+    private void pushResync(long now) {
+        int snapshot = snapshots++ % RESYNC_SNAPSHOTS;
+        System.arraycopy(serverItem, 0, snapshotItems, snapshot * SLOTS, SLOTS);
+        System.arraycopy(serverCount, 0, snapshotCounts, snapshot * SLOTS, SLOTS);
+        downlink.push(now + config.downlinkLatency(), -1, RESYNC, snapshot, ++serverRevision);
+    }
+
+    private static int vanillaToHandler(int vanillaSlot) {
+        return vanillaSlot < 9 ? vanillaSlot + 36 : vanillaSlot;
+    }
+
+    static int firstSlot() {
+        return FIRST_SLOT;
+    }
+
+    private static final class PacketQueue {
+        private final long[] deliverAt = new long[QUEUE_CAPACITY];
+        private final int[] slots = new int[QUEUE_CAPACITY];
+        private final int[] items = new int[QUEUE_CAPACITY];
+        private final int[] counts = new int[QUEUE_CAPACITY];
+        private final int[] revisions = new int[QUEUE_CAPACITY];
+        private int head = 0;
+        private int tail = 0;
+
+        void push(long at, int slot, int item, int count, int revision) {
+            if (tail - head == QUEUE_CAPACITY) throw new IllegalStateException("Packet queue overflow");
+            int i = tail++ & (QUEUE_CAPACITY - 1);
+            deliverAt[i] = at;
+            slots[i] = slot;
+            items[i] = item;
+            counts[i] = count;
+            revisions[i] = revision;
+        }
+
+        boolean isDue(long now) {
+            return head != tail && deliverAt[head & (QUEUE_CAPACITY - 1)] <= now;
+        }
+
+        int slot() {
+            return slots[head & (QUEUE_CAPACITY - 1)];
+        }
+
+        int item() {
+            return items[head & (QUEUE_CAPACITY - 1)];
+        }
+
+        int count() {
+            return counts[head & (QUEUE_CAPACITY - 1)];
+        }
+
+        int revision() {
+            return revisions[head & (QUEUE_CAPACITY - 1)];
+        }
+
+        void pop() {
+            head++;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package me.cioco.inventorycleaner.simulator;
+
+/**
+ * Parameters of one simulation run, parsed from {@code --key=value} arguments.
+ */
+public record SimulationConfig(long ticks, int throwDelayTicks, double dropsPerTick, double junkRatio,
+                               int itemTypes, int uplinkLatency, int downlinkLatency,
+                               int registrySize, int listSize, boolean whitelist, long seed, boolean json,
+                               boolean adaptive, int minDelayTicks, int maxOutstanding, int serverRateLimit,
+                               int throwsPerTick) {
+
+    public static SimulationConfig parse(String[] args) {
+        long ticks = 1_000_000;
+        int delay = 20;
+        double dropsPerTick = 0.25;
+        double junkRatio = 0.6;
+        int itemTypes = 8;
+        int uplink = 1;
+        int downlink = 1;
+        int registrySize = 1300;
+        int listSize = 100;
+        boolean whitelist = false;
+        long seed = 42;
+        boolean json = false;
+        boolean adaptive = false;
+        int minDelay = 1;
+        int maxOutstanding = 4;
+        int rateLimit = 0;
+        int throwsPerTick = 1;
+
+        for (String arg : args) {
+            String key = arg.startsWith("--") ? arg.substring(2) : arg;
+            String value = "";
+            int eq = key.indexOf('=');
+            if (eq >= 0) {
+                value = key.substring(eq + 1);
+                key = key.substring(0, eq);
+            }
+
+            switch (key) {
+                case "ticks" -> ticks = Long.parseLong(value);
+                case "delay" -> delay = Math.max(1, Integer.parseInt(value));
+                case "drop-rate" -> dropsPerTick = Double.parseDouble(value);
+                case "junk-ratio" -> junkRatio = Double.parseDouble(value);
+                case "item-types" -> itemTypes = Math.max(2, Integer.parseInt(value));
+                case "latency" -> uplink = downlink = Math.max(0, Integer.parseInt(value));
+                case "uplink-latency" -> uplink = Math.max(0, Integer.parseInt(value));
+                case "downlink-latency" -> downlink = Math.max(0, Integer.parseInt(value));
+                case "registry" -> registrySize = Integer.parseInt(value);
+                case "list" -> listSize = Integer.parseInt(value);
+                case "whitelist" -> whitelist = value.isEmpty() || Boolean.parseBoolean(value);
+                case "seed" -> seed = Long.parseLong(value);
+                case "json" -> json = value.isEmpty() || Boolean.parseBoolean(value);
+                case "adaptive" -> adaptive = value.isEmpty() || Boolean.parseBoolean(value);
+                case "min-delay" -> minDelay = Math.max(1, Integer.parseInt(value));
+                case "max-outstanding" -> maxOutstanding = Math.max(1, Integer.parseInt(value));
+                case "rate-limit" -> rateLimit = Math.max(0, Integer.parseInt(value));
+                case "throws-per-tick" -> throwsPerTick = Math.max(1, Integer.parseInt(value));
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        if (listSize < 1 || listSize >= registrySize)
+            throw new IllegalArgumentException("--list must be between 1 and registry - 1");
+
+        return new SimulationConfig(ticks, delay, dropsPerTick, junkRatio, itemTypes, uplink, downlink,
+                registrySize, listSize, whitelist, seed, json, adaptive, minDelay, maxOutstanding, rateLimit,
+                throwsPerTick);
+    }
+}
@@ -0,0 +1,96 @@
+package me.cioco.inventorycleaner.simulator;
+
+import me.cioco.inventorycleaner.core.AdaptiveThrowLimiter;
+import me.cioco.inventorycleaner.core.CleanerLoop;
+import me.cioco.inventorycleaner.core.DirtySlotTracker;
+import me.cioco.inventorycleaner.core.RuleTable;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Runs the cleaner loop headless against {@link SimulatedWorld} and reports throughput figures.
+ * Usage: {@code ./gradlew :simulator:run --args="--ticks=10000000 --delay=4 --drop-rate=0.5 --latency=3"};
+ * add {@code --adaptive --rate-limit=10} to drive the adaptive limiter against a rate-limited server.
+ */
+public class Simulator {
+
+    private static final double TICKS_PER_SECOND = 20.0;
+
+    public static void main(String[] args) {
+        SimulationConfig config = SimulationConfig.parse(args);
+
+        int[] listed = new int[config.listSize()];
+        for (int i = 0; i < listed.length; i++) listed[i] = i;
+        RuleTable rules = RuleTable.compile(listed, new int[0], config.whitelist());
+
+        int[] inList = new int[Math.min(config.itemTypes(), config.listSize())];
+        for (int i = 0; i < inList.length; i++) inList[i] = i;
+        int[] notInList = new int[Math.min(config.itemTypes(), config.registrySize() - config.listSize())];
+        for (int i = 0; i < notInList.length; i++) notInList[i] = config.listSize() + i;
+
+        DirtySlotTracker tracker = new DirtySlotTracker(SimulatedWorld.firstSlot(), 36);
+        CleanerLoop loop = new CleanerLoop(tracker);
+        SimulatedWorld world = config.whitelist()
+                ? new SimulatedWorld(config, tracker, notInList, inList)
+                : new SimulatedWorld(config, tracker, inList, notInList);
+        AdaptiveThrowLimiter limiter = new AdaptiveThrowLimiter();
+        limiter.configure(config.minDelayTicks(), config.maxOutstanding());
+        if (config.adaptive()) world.setLimiter(limiter);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+
+        int[] slots = new int[config.throwsPerTick()];
+        long throwsSent = 0;
+        long idleTicks = 0;
+        for (long tick = 0; tick < config.ticks(); tick++) {
+            world.tick(tick);
+
+            if (!loop.isCoolingDown() && loop.isIdle()) idleTicks++;
+            int count = config.adaptive()
+                    ? loop.tick(rules, slots.length, world, limiter, world.revision(),
+                            tick * AdaptiveThrowLimiter.NANOS_PER_TICK, slots)
+                    : loop.tick(rules, config.throwDelayTicks(), slots.length, world, slots);
+            for (int i = 0; i < count; i++) world.clickThrow(tick, slots[i]);
+            if (count > 0) throwsSent += count;
+        }
+
+        long elapsedNanos = System.nanoTime() - started;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        double simulatedSeconds = config.ticks() / TICKS_PER_SECOND;
+        double throwsPerSecond = throwsSent / simulatedSeconds;
+        double ticksPerWallSecond = config.ticks() / (elapsedNanos / 1e9);
+        double idleRatio = (double) idleTicks / config.ticks();
+        double avgTimeToClean = world.cleanedStacks == 0 ? 0 : (double) world.timeToCleanSum / world.cleanedStacks;
+        double avgAccept = world.accepts == 0 ? 0 : (double) world.acceptLatencySum / world.accepts;
+        double bytesPerTick = (double) allocated / config.ticks();
+
+        if (config.json()) {
+            System.out.printf(Locale.ROOT, "{\"ticks\":%d,\"throws\":%d,\"throwsPerSecond\":%.4f,"
+                            + "\"ticksPerWallSecond\":%.1f,\"idleTickRatio\":%.6f,\"timeToCleanAvgTicks\":%.3f,"
+                            + "\"timeToCleanMaxTicks\":%d,\"acceptLatencyAvgTicks\":%.3f,\"pickups\":%d,"
+                            + "\"missedPickups\":%d,\"rejectedThrows\":%d,\"allocatedBytes\":%d,\"allocatedBytesPerTick\":%.6f}%n",
+                    config.ticks(), throwsSent, throwsPerSecond, ticksPerWallSecond, idleRatio, avgTimeToClean,
+                    world.timeToCleanMax, avgAccept, world.pickups, world.missedPickups, world.rejectedThrows, allocated, bytesPerTick);
+            return;
+        }
+
+        System.out.printf(Locale.ROOT, "Simulated %,d ticks (%.1f h game time) in %.2f s -> %,.0f ticks/s%n",
+                config.ticks(), simulatedSeconds / 3600, elapsedNanos / 1e9, ticksPerWallSecond);
+        System.out.printf(Locale.ROOT, "Throws:          %,d (%.3f/s)%n", throwsSent, throwsPerSecond);
+        System.out.printf(Locale.ROOT, "Pickups:         %,d (%,d missed, inventory full)%n",
+                world.pickups, world.missedPickups);
+        System.out.printf(Locale.ROOT, "Time to clean:   avg %.1f ticks (%.2f s), max %d ticks%n",
+                avgTimeToClean, avgTimeToClean / TICKS_PER_SECOND, world.timeToCleanMax);
+        System.out.printf(Locale.ROOT, "Accept latency:  avg %.1f ticks%n", avgAccept);
+        System.out.printf(Locale.ROOT, "Rejected throws: %,d%n", world.rejectedThrows);
+        if (config.adaptive())
+            System.out.printf(Locale.ROOT, "Limiter:         window %.2f, srtt %.1f ticks, %,d rejections%n", limiter.getWindow(),
+                    limiter.getSmoothedRttNanos() / (double) AdaptiveThrowLimiter.NANOS_PER_TICK, limiter.getRejections());
+        System.out.printf(Locale.ROOT, "Idle ticks:      %.2f%%%n", idleRatio * 100);
+        System.out.printf(Locale.ROOT, "Allocations:     %,d bytes (%.4f bytes/tick)%n", allocated, bytesPerTick);
+    }
+}
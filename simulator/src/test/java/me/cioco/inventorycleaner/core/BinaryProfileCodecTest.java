@@ -0,0 +1,66 @@
+package me.cioco.inventorycleaner.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryProfileCodecTest {
+
+    private static final long FINGERPRINT = 0x1234_5678_9ABCL;
+    private static final Map<String, Integer> REGISTRY = Map.of("minecraft:stone", 1, "minecraft:dirt", 7);
+
+    @Test
+    void roundTripsEverySetting() throws IOException {
+        ConfigSnapshot snapshot = snapshot(List.of("minecraft:stone", "minecraft:dirt"),
+                List.of("keep * named", "throw bow !enchanted"));
+        int[] rawIds = {1, 7};
+
+        BinaryProfileCodec.Profile profile = BinaryProfileCodec.read(encode(snapshot, rawIds), "mining");
+
+        assertEquals(snapshot, profile.snapshot());
+        assertArrayEquals(rawIds, profile.rawItemIds());
+        assertEquals(FINGERPRINT, profile.registryFingerprint());
+    }
+
+    @Test
+    void resolvesByNameWhenFingerprintChanged() throws IOException {
+        ConfigSnapshot snapshot = snapshot(List.of("minecraft:stone", "minecraft:removed", "minecraft:dirt"), List.of());
+        BinaryProfileCodec.Profile profile = BinaryProfileCodec.read(encode(snapshot, new int[]{10, 11, 12}), "mining");
+        List<String> itemIds = profile.snapshot().itemIds();
+
+        assertArrayEquals(new int[]{10, 11, 12}, BinaryProfileCodec.resolveRawIds(profile.rawItemIds(),
+                profile.registryFingerprint(), itemIds, FINGERPRINT, id -> REGISTRY.getOrDefault(id, -1)));
+        assertArrayEquals(new int[]{1, 7}, BinaryProfileCodec.resolveRawIds(profile.rawItemIds(),
+                profile.registryFingerprint(), itemIds, FINGERPRINT + 1, id -> REGISTRY.getOrDefault(id, -1)));
+        assertArrayEquals(new int[]{1, 7}, BinaryProfileCodec.resolveRawIds(null, 0, itemIds, FINGERPRINT,
+                id -> REGISTRY.getOrDefault(id, -1)));
+    }
+
+    @Test
+    void rejectsStringsLongerThanTheLengthPrefix() throws IOException {
+        ConfigSnapshot tooLong = snapshot(List.of(), List.of("a".repeat(0x10000)));
+        assertThrows(IOException.class, () -> encode(tooLong, new int[0]));
+
+        ConfigSnapshot longest = snapshot(List.of(), List.of("a".repeat(0xFFFF)));
+        assertEquals(longest, BinaryProfileCodec.read(encode(longest, new int[0]), "mining").snapshot());
+    }
+
+    private static ByteBuffer encode(ConfigSnapshot snapshot, int[] rawIds) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryProfileCodec.write(bytes, snapshot, rawIds, FINGERPRINT);
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    private static ConfigSnapshot snapshot(List<String> itemIds, List<String> rules) {
+        return new ConfigSnapshot("mining", true, false, true, true, 4, "WHITELIST", itemIds, 0x1FFL, rules,
+                List.of("c:ores"), List.of("minecraft:torch=64"), true, 2, 6, 3, true, List.of("minecraft:dirt"));
+    }
+}
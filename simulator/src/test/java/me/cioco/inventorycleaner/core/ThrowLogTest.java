@@ -0,0 +1,115 @@
+package me.cioco.inventorycleaner.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ThrowLogTest {
+
+    private static final int CAPACITY = 4096;
+    private static final long HOUR = 3_600_000L;
+    private static final int STONE = 1;
+    private static final int DIRT = 2;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordCountsDropsWhileRingIsFull() {
+        try (ThrowLog log = new ThrowLog(dir.resolve("throws.log"), ThrowLogTest::itemName)) {
+            for (int i = 0; i < CAPACITY + 10; i++) log.record(STONE, 1, 10 * HOUR);
+            assertEquals(10, log.getDropped());
+
+            ThrowLog.Summary summary = log.summarize().join();
+            assertEquals(CAPACITY, summary.throwCount());
+            assertEquals(10, summary.dropped());
+
+            log.record(STONE, 1, 10 * HOUR);
+            assertEquals(10, log.getDropped());
+            assertEquals(CAPACITY + 1, log.summarize().join().throwCount());
+        }
+    }
+
+    @Test
+    void truncatedTrailingFrameIsDropped() throws IOException {
+        Path path = dir.resolve("throws.log");
+        long complete;
+        try (ThrowLog log = new ThrowLog(path, ThrowLogTest::itemName)) {
+            log.record(STONE, 3, 10 * HOUR);
+            log.record(DIRT, 1, 10 * HOUR);
+            log.summarize().join();
+            complete = Files.size(path);
+            log.record(STONE, 5, 10 * HOUR);
+            log.summarize().join();
+        }
+        byte[] full = Files.readAllBytes(path);
+
+        for (long cut : new long[]{complete + 3, full.length - 2}) {
+            Files.write(path, full);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(cut);
+            }
+            try (ThrowLog log = new ThrowLog(path, ThrowLogTest::itemName)) {
+                ThrowLog.Summary summary = log.summarize().join();
+                assertEquals(2, summary.throwCount(), "cut at " + cut);
+                assertEquals(4, summary.itemCount(), "cut at " + cut);
+
+                log.start();
+                log.record(DIRT, 2, 11 * HOUR);
+                summary = log.summarize().join();
+                assertEquals(3, summary.throwCount(), "cut at " + cut);
+                assertEquals(6, summary.itemCount(), "cut at " + cut);
+            }
+        }
+    }
+
+    @Test
+    void compactRollsFramesUpIntoHourlyTotals() throws IOException {
+        Path path = dir.resolve("throws.log");
+        ThrowLog.Summary before;
+        long session;
+        try (ThrowLog log = new ThrowLog(path, ThrowLogTest::itemName)) {
+            session = log.getSessionStart();
+            log.record(STONE, 2, 10 * HOUR + 60_000);
+            log.summarize().join();
+            log.record(STONE, 3, 10 * HOUR + 120_000);
+            log.setProfile("mining");
+            log.summarize().join();
+            log.record(DIRT, 1, 11 * HOUR);
+            before = log.summarize().join();
+        }
+        assertEquals(3, before.throwCount());
+        assertEquals(6, before.itemCount());
+
+        try (ThrowLog log = new ThrowLog(path, ThrowLogTest::itemName)) {
+            log.start();
+            ThrowLog.Summary after = log.summarize().join();
+
+            ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(path));
+            assertEquals(file.capacity() - 5, file.getInt());
+
+            assertEquals(3, after.throwCount());
+            assertEquals(6, after.itemCount());
+            assertEquals(Map.of("minecraft:stone", 5L, "minecraft:dirt", 1L), after.items());
+            assertEquals(Map.of("default", 5L, "mining", 1L), after.profiles());
+            assertEquals(Map.of(session, 6L), after.sessions());
+            assertEquals(Map.of(10L, 2L, 11L, 1L), after.throwsByHour());
+            assertEquals(2, after.getThrowsInHour(10 * HOUR + 30_000));
+            assertEquals(before.items(), after.items());
+            assertEquals(before.throwsByHour(), after.throwsByHour());
+        }
+    }
+
+    private static String itemName(int rawItemId) {
+        return rawItemId == STONE ? "minecraft:stone" : "minecraft:dirt";
+    }
+}
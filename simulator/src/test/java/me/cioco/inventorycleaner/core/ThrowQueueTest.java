@@ -0,0 +1,75 @@
+package me.cioco.inventorycleaner.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThrowQueueTest {
+
+    private static final int FIRST_SLOT = 9;
+    private static final int STONE = 1;
+    private static final int KEEP = 64;
+
+    @Test
+    void keepsQuotaWhenGroupShrinksBetweenPlans() {
+        DirtySlotTracker tracker = new DirtySlotTracker(FIRST_SLOT, 36);
+        ThrowQueue queue = new ThrowQueue(tracker);
+        Inventory inventory = new Inventory();
+        inventory.set(9, STONE, 32);
+        inventory.set(10, STONE, 32);
+        inventory.set(11, STONE, 16);
+        RuleTable rules = RuleTable.compile(new int[0], new int[0], false, ComponentRules.NONE,
+                QuotaCounter.compile(List.of(ItemQuota.parse("stone=" + KEEP)), id -> STONE, tag -> new int[0]));
+
+        queue.plan(rules, inventory, 0L);
+        assertEquals(1L << 11, queue.getQueuedMask());
+
+        inventory.set(10, STONE, 20);
+        tracker.markSlot(10);
+        for (int round = 0; round < 4; round++) {
+            queue.plan(rules, inventory, 0L);
+            for (int slotId = queue.poll(inventory); slotId >= 0; slotId = queue.poll(inventory)) {
+                inventory.set(slotId, -1, 0);
+                tracker.markSlot(slotId);
+                assertTrue(inventory.total(STONE) >= KEEP, "threw below the quota from slot " + slotId);
+            }
+        }
+        assertEquals(68, inventory.total(STONE));
+    }
+
+    private static final class Inventory implements SlotSelector.SlotView {
+
+        private final int[] items = new int[64];
+        private final int[] counts = new int[64];
+
+        Inventory() {
+            Arrays.fill(items, -1);
+        }
+
+        void set(int slotId, int rawItemId, int count) {
+            items[slotId] = rawItemId;
+            counts[slotId] = count;
+        }
+
+        int total(int rawItemId) {
+            int total = 0;
+            for (int i = 0; i < items.length; i++)
+                if (items[i] == rawItemId) total += counts[i];
+            return total;
+        }
+
+        @Override
+        public int rawItemId(int slotId) {
+            return items[slotId];
+        }
+
+        @Override
+        public int count(int slotId) {
+            return counts[slotId];
+        }
+    }
+}
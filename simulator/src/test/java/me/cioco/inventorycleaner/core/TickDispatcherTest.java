@@ -0,0 +1,63 @@
+package me.cioco.inventorycleaner.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickDispatcherTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void catchUpBurstsAtTenFpsAreNotPressure() {
+        TickDispatcher<Object> dispatcher = new TickDispatcher<>();
+        TickDispatcher.Task<Object> task = dispatcher.register("task", 1_000_000L, 20, context -> {
+        });
+
+        int frames = 100;
+        for (int frame = 0; frame < frames; frame++) {
+            long frameStart = frame * 100 * MILLIS;
+            tick(dispatcher, frameStart, MILLIS);
+            tick(dispatcher, frameStart + MILLIS, MILLIS);
+            assertFalse(dispatcher.isUnderPressure(), "pressure in frame " + frame);
+        }
+        assertEquals(frames * 2, task.getRuns());
+        assertEquals(0, task.getDeferrals());
+        assertEquals(0.0, dispatcher.getPressureRatio());
+    }
+
+    @Test
+    void stallIsPressureUntilCaughtUp() {
+        TickDispatcher<Object> dispatcher = new TickDispatcher<>();
+        long now = 0;
+        for (int i = 0; i < 10; i++, now += 50 * MILLIS) tick(dispatcher, now, MILLIS);
+        assertFalse(dispatcher.isUnderPressure());
+
+        now += 400 * MILLIS;
+        for (int i = 0; i < 8; i++, now += MILLIS) {
+            tick(dispatcher, now, MILLIS);
+            assertTrue(dispatcher.isUnderPressure());
+        }
+
+        for (int i = 0; i < 10; i++) {
+            now += 50 * MILLIS;
+            tick(dispatcher, now, MILLIS);
+        }
+        assertFalse(dispatcher.isUnderPressure());
+    }
+
+    @Test
+    void longTickIsPressure() {
+        TickDispatcher<Object> dispatcher = new TickDispatcher<>();
+        tick(dispatcher, 0, MILLIS);
+        tick(dispatcher, 50 * MILLIS, 30 * MILLIS);
+        assertTrue(dispatcher.isUnderPressure());
+    }
+
+    private static void tick(TickDispatcher<Object> dispatcher, long start, long work) {
+        dispatcher.onTickStart(start);
+        dispatcher.onTickEnd(null, start + work);
+    }
+}
@@ -1,11 +1,17 @@
 package me.cioco.inventorycleaner;
 
 
+import me.cioco.inventorycleaner.command.CleanerCommands;
 import me.cioco.inventorycleaner.config.InventoryCleaner;
+import me.cioco.inventorycleaner.core.TickDispatcher;
+import me.cioco.inventorycleaner.gui.CleanerHud;
 import me.cioco.inventorycleaner.gui.InventoryCleanerScreen;
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.client.command.v2.ClientCommandRegistrationCallback;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
+import net.fabricmc.fabric.api.client.rendering.v1.hud.HudElementRegistry;
+import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.option.KeyBinding;
 import net.minecraft.client.util.InputUtil;
 import net.minecraft.text.Text;
@@ -20,7 +26,10 @@ public class Main implements ModInitializer {
     public static final KeyBinding.Category CATEGORY_INVCLEANER = KeyBinding.Category.create(Identifier.of("inventorycleaner", "key_category"));
     public static KeyBinding keyBinding;
     public static KeyBinding guiKeyBinding;
+    public static KeyBinding hudKeyBinding;
+    private final TickDispatcher<MinecraftClient> dispatcher = new TickDispatcher<>();
     private InventoryCleaner inventoryCleaner;
+    private CleanerHud hud;
 
     @Override
     public void onInitialize() {
@@ -40,21 +49,45 @@ public class Main implements ModInitializer {
                 CATEGORY_INVCLEANER
         ));
 
-        ClientTickEvents.END_CLIENT_TICK.register(client -> {
-            if (client.player == null) return;
-            if (keyBinding.wasPressed()) {
-                toggled = !toggled;
-                inventoryCleaner.saveConfiguration();
-                client.player.sendMessage(
-                        Text.literal("InventoryCleaner: ")
-                                .append(Text.literal(toggled ? "Enabled" : "Disabled")
-                                        .formatted(toggled ? Formatting.GREEN : Formatting.RED)),
-                        false
-                );
-            }
-            if (guiKeyBinding.wasPressed()) {
-                client.setScreen(new InventoryCleanerScreen(client.currentScreen, inventoryCleaner));
-            }
-        });
+        hudKeyBinding = KeyBindingHelper.registerKeyBinding(new KeyBinding(
+                "key." + MOD_ID + ".toggle_hud",
+                InputUtil.UNKNOWN_KEY.getCode(),
+                CATEGORY_INVCLEANER
+        ));
+
+        hud = new CleanerHud(inventoryCleaner, dispatcher);
+        HudElementRegistry.addLast(Identifier.of(MOD_ID, "telemetry"), hud::render);
+
+        dispatcher.register("keys", 200_000L, 0, this::handleKeys);
+        dispatcher.register("profiles", 200_000L, 20, inventoryCleaner::tickProfiles);
+        dispatcher.register("clean", 1_000_000L, 20, inventoryCleaner::tickCleaner);
+        dispatcher.register("save", 2_000_000L, 100, client -> inventoryCleaner.tickPersistence());
+        dispatcher.register("hud", 500_000L, 20, hud::tick);
+
+        ClientCommandRegistrationCallback.EVENT.register((commands, registryAccess) ->
+                CleanerCommands.register(commands, inventoryCleaner));
+
+        ClientTickEvents.START_CLIENT_TICK.register(client -> dispatcher.onTickStart(System.nanoTime()));
+        ClientTickEvents.END_CLIENT_TICK.register(client -> dispatcher.onTickEnd(client, System.nanoTime()));
+    }
+
+    private void handleKeys(MinecraftClient client) {
+        if (client.player == null) return;
+        if (keyBinding.wasPressed()) {
+            toggled = !toggled;
+            inventoryCleaner.saveConfiguration();
+            client.player.sendMessage(
+                    Text.literal("InventoryCleaner: ")
+                            .append(Text.literal(toggled ? "Enabled" : "Disabled")
+                                    .formatted(toggled ? Formatting.GREEN : Formatting.RED)),
+                    false
+            );
+        }
+        if (guiKeyBinding.wasPressed()) {
+            client.setScreen(new InventoryCleanerScreen(client.currentScreen, inventoryCleaner));
+        }
+        if (hudKeyBinding.wasPressed()) {
+            CleanerHud.visible = !CleanerHud.visible;
+        }
     }
 }
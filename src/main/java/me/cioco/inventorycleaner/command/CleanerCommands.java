@@ -0,0 +1,281 @@
+package me.cioco.inventorycleaner.command;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import me.cioco.inventorycleaner.config.InventoryCleaner;
+import me.cioco.inventorycleaner.core.ItemQuota;
+import me.cioco.inventorycleaner.core.ProfileRepository;
+import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
+import net.minecraft.item.Item;
+import net.minecraft.item.Items;
+import net.minecraft.registry.Registries;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static net.fabricmc.fabric.api.client.command.v2.ClientCommandManager.argument;
+import static net.fabricmc.fabric.api.client.command.v2.ClientCommandManager.literal;
+
+/**
+ * {@code /invclean} client commands for scripted setups. Every invocation validates all of its arguments first
+ * and then applies them as one {@link InventoryCleaner#edit} batch: one rule rebuild and one save, however many
+ * ids, tags or slots it names.
+ */
+public final class CleanerCommands {
+
+    private static final int SLOT_COUNT = 36;
+    private static final String PROFILE_NAME = "[\\w\\-. ]+";
+
+    private CleanerCommands() {
+    }
+
+    public static void register(CommandDispatcher<FabricClientCommandSource> dispatcher, InventoryCleaner config) {
+        LiteralArgumentBuilder<FabricClientCommandSource> root = literal("invclean")
+                .then(literal("add").then(argument("targets", StringArgumentType.greedyString())
+                        .executes(ctx -> editTargets(ctx, config, getString(ctx, "targets"), true))))
+                .then(literal("remove").then(argument("targets", StringArgumentType.greedyString())
+                        .executes(ctx -> editTargets(ctx, config, getString(ctx, "targets"), false))))
+                .then(literal("lock").then(argument("slots", StringArgumentType.greedyString())
+                        .executes(ctx -> editSlots(ctx, config, getString(ctx, "slots"), true))))
+                .then(literal("unlock").then(argument("slots", StringArgumentType.greedyString())
+                        .executes(ctx -> editSlots(ctx, config, getString(ctx, "slots"), false))))
+                .then(literal("import").then(argument("file", StringArgumentType.greedyString())
+                        .executes(ctx -> importFile(ctx, config, getString(ctx, "file")))))
+                .then(literal("profile")
+                        .then(literal("list").executes(ctx -> listProfiles(ctx, config)))
+                        .then(literal("load").then(argument("name", StringArgumentType.greedyString())
+                                .executes(ctx -> loadProfile(ctx, config, getString(ctx, "name")))))
+                        .then(literal("save").then(argument("name", StringArgumentType.greedyString())
+                                .executes(ctx -> saveProfile(ctx, config, getString(ctx, "name")))))
+                        .then(literal("bind")
+                                .then(literal("server").then(argument("name", StringArgumentType.greedyString())
+                                        .executes(ctx -> bind(ctx, config, config.getPlaceKey(), getString(ctx, "name")))))
+                                .then(literal("dimension").then(argument("name", StringArgumentType.greedyString())
+                                        .executes(ctx -> bind(ctx, config, config.getDimensionKey(), getString(ctx, "name"))))))
+                        .then(literal("unbind")
+                                .then(literal("server").executes(ctx -> unbind(ctx, config, config.getPlaceKey())))
+                                .then(literal("dimension").executes(ctx -> unbind(ctx, config, config.getDimensionKey())))));
+        dispatcher.register(root);
+    }
+
+    private static String getString(CommandContext<FabricClientCommandSource> ctx, String name) {
+        return StringArgumentType.getString(ctx, name).trim();
+    }
+
+    private static int editTargets(CommandContext<FabricClientCommandSource> ctx, InventoryCleaner config,
+                                   String input, boolean add) {
+        List<TargetEdit> edits = new ArrayList<>();
+        for (String token : input.split("\\s+")) {
+            if (token.isEmpty()) continue;
+            try {
+                edits.add(parseTarget(token, add));
+            } catch (IllegalArgumentException e) {
+                ctx.getSource().sendError(Text.literal(e.getMessage()));
+                return 0;
+            }
+        }
+        return apply(ctx, config, edits, add);
+    }
+
+    private static int importFile(CommandContext<FabricClientCommandSource> ctx, InventoryCleaner config, String file) {
+        Path path = config.resolveConfigFile(file);
+        if (path == null || !Files.isRegularFile(path)) {
+            ctx.getSource().sendError(Text.literal("No such file in config/inventory-cleaner: " + file));
+            return 0;
+        }
+
+        List<TargetEdit> edits = new ArrayList<>();
+        try {
+            int lineNumber = 0;
+            for (String line : Files.readAllLines(path)) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("//")) continue;
+                for (String token : line.split("\\s+")) {
+                    try {
+                        edits.add(parseTarget(token, true));
+                    } catch (IllegalArgumentException e) {
+                        ctx.getSource().sendError(Text.literal(file + ":" + lineNumber + ": " + e.getMessage()));
+                        return 0;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            ctx.getSource().sendError(Text.literal("Could not read " + file));
+            return 0;
+        }
+        return apply(ctx, config, edits, true);
+    }
+
+    private static int apply(CommandContext<FabricClientCommandSource> ctx, InventoryCleaner config,
+                             List<TargetEdit> edits, boolean add) {
+        int[] changed = {0};
+        config.edit(() -> {
+            for (TargetEdit edit : edits)
+                if (edit.apply(config)) changed[0]++;
+        });
+        ctx.getSource().sendFeedback(Text.literal((add ? "§aAdded §f" : "§eRemoved §f") + changed[0]
+                + " §7of " + edits.size() + " entries"));
+        return changed[0];
+    }
+
+    /**
+     * Parses the item field syntax: {@code id}, {@code #tag}, {@code id=count} or {@code #tag=count} quotas and
+     * {@code @id} or {@code @#tag} container entries. Removing a quota only needs {@code id=}.
+     */
+    private static TargetEdit parseTarget(String token, boolean add) {
+        if (token.startsWith("@")) {
+            String target = normalize(token.substring(1), true);
+            return config -> config.setContainerItem(target, add);
+        }
+        int eq = token.indexOf('=');
+        if (eq >= 0) {
+            if (add) {
+                ItemQuota parsed = ItemQuota.parse(token);
+                ItemQuota quota = new ItemQuota(normalize(parsed.target(), true), parsed.limit());
+                return config -> {
+                    if (quota.equals(config.getQuota(quota.target()))) return false;
+                    config.putQuota(quota);
+                    return true;
+                };
+            }
+            String target = normalize(ItemQuota.parse(token.substring(0, eq) + "=0").target(), false);
+            return config -> config.removeQuota(target);
+        }
+        if (token.startsWith("#")) {
+            String tag = normalize(token, false).substring(1);
+            return config -> config.setItemTag(tag, add);
+        }
+        Item item = Registries.ITEM.get(parseId(token, true));
+        return config -> config.setItemListed(item, add);
+    }
+
+    private static String normalize(String target, boolean requireItem) {
+        if (target.startsWith("#")) return "#" + parseId(target.substring(1), false);
+        return parseId(target, requireItem).toString();
+    }
+
+    /**
+     * Parses an item or tag id, defaulting to the {@code minecraft} namespace.
+     */
+    private static Identifier parseId(String id, boolean requireItem) {
+        Identifier parsed = Identifier.tryParse(id.contains(":") ? id : "minecraft:" + id);
+        if (parsed == null) throw new IllegalArgumentException("Invalid ID: " + id);
+        if (requireItem && (!Registries.ITEM.containsId(parsed) || Registries.ITEM.get(parsed) == Items.AIR))
+            throw new IllegalArgumentException("Unknown item: " + id);
+        return parsed;
+    }
+
+    private static int editSlots(CommandContext<FabricClientCommandSource> ctx, InventoryCleaner config,
+                                 String input, boolean lock) {
+        long slots;
+        try {
+            slots = parseSlots(input);
+        } catch (IllegalArgumentException e) {
+            ctx.getSource().sendError(Text.literal(e.getMessage()));
+            return 0;
+        }
+
+        int[] changed = {0};
+        config.edit(() -> {
+            for (long remaining = slots; remaining != 0; remaining &= remaining - 1)
+                if (config.setSlotLocked(Long.numberOfTrailingZeros(remaining), lock)) changed[0]++;
+        });
+        ctx.getSource().sendFeedback(Text.literal((lock ? "§aLocked §f" : "§eUnlocked §f") + changed[0]
+                + " §7of " + Long.bitCount(slots) + " slots"));
+        return changed[0];
+    }
+
+    /**
+     * Parses inventory slot indices (0-35) given as numbers, ranges like {@code 9-17}, or {@code all}.
+     */
+    private static long parseSlots(String input) {
+        long slots = 0;
+        for (String token : input.split("[\\s,]+")) {
+            if (token.isEmpty()) continue;
+            if (token.equalsIgnoreCase("all")) {
+                slots |= (1L << SLOT_COUNT) - 1;
+                continue;
+            }
+            int dash = token.indexOf('-', 1);
+            int from, to;
+            try {
+                from = Integer.parseInt(dash < 0 ? token : token.substring(0, dash));
+                to = dash < 0 ? from : Integer.parseInt(token.substring(dash + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid slot: " + token);
+            }
+            if (from < 0 || to >= SLOT_COUNT || from > to)
+                throw new IllegalArgumentException("Slots must be between 0 and " + (SLOT_COUNT - 1) + ": " + token);
+            for (int slot = from; slot <= to; slot++) slots |= 1L << slot;
+        }
+        if (slots == 0) throw new IllegalArgumentException("No slots given");
+        return slots;
+    }
+
+    private static int listProfiles(CommandContext<FabricClientCommandSource> ctx, InventoryCleaner config) {
+        String names = config.getProfiles().stream()
+                .map(ProfileRepository.Entry::name)
+                .map(name -> name.equals(config.getActiveProfile()) ? "§a" + name + "§f" : name)
+                .collect(Collectors.joining(", "));
+        ctx.getSource().sendFeedback(Text.literal("§7Profiles: §f" + names));
+        return 1;
+    }
+
+    private static int loadProfile(CommandContext<FabricClientCommandSource> ctx, InventoryCleaner config, String name) {
+        if (!config.loadConfiguration(name)) {
+            ctx.getSource().sendError(Text.literal("Profile not found: " + name));
+            return 0;
+        }
+        ctx.getSource().sendFeedback(Text.literal("§aLoaded profile: §f" + name));
+        return 1;
+    }
+
+    private static int saveProfile(CommandContext<FabricClientCommandSource> ctx, InventoryCleaner config, String name) {
+        if (!name.matches(PROFILE_NAME)) {
+            ctx.getSource().sendError(Text.literal("Name may only contain letters, digits, -, _, . and spaces"));
+            return 0;
+        }
+        config.saveConfiguration(name);
+        ctx.getSource().sendFeedback(Text.literal("§aSaved profile: §f" + name));
+        return 1;
+    }
+
+    private static int bind(CommandContext<FabricClientCommandSource> ctx, InventoryCleaner config, String key,
+                            String name) {
+        if (key == null) {
+            ctx.getSource().sendError(Text.literal("Join a world to bind profiles to it"));
+            return 0;
+        }
+        if (config.getProfiles().stream().noneMatch(p -> p.name().equals(name))) {
+            ctx.getSource().sendError(Text.literal("Profile not found: " + name));
+            return 0;
+        }
+        config.bindProfile(key, name);
+        ctx.getSource().sendFeedback(Text.literal("§aBound §f" + name + " §ato §f" + key));
+        return 1;
+    }
+
+    private static int unbind(CommandContext<FabricClientCommandSource> ctx, InventoryCleaner config, String key) {
+        if (key == null || !config.unbind(key)) {
+            ctx.getSource().sendError(Text.literal("Nothing is bound here"));
+            return 0;
+        }
+        ctx.getSource().sendFeedback(Text.literal("§eUnbound §f" + key));
+        return 1;
+    }
+
+    @FunctionalInterface
+    private interface TargetEdit {
+        boolean apply(InventoryCleaner config);
+    }
+}
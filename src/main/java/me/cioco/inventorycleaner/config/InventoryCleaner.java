@@ -1,51 +1,398 @@
 package me.cioco.inventorycleaner.config;
 
+import me.cioco.inventorycleaner.core.AdaptiveThrowLimiter;
+import me.cioco.inventorycleaner.core.BinaryProfileCodec;
+import me.cioco.inventorycleaner.core.CleanerLoop;
+import me.cioco.inventorycleaner.core.CleanerTelemetry;
+import me.cioco.inventorycleaner.core.CleanerTick;
+import me.cioco.inventorycleaner.core.ComponentRules;
+import me.cioco.inventorycleaner.core.ConfigChanges;
+import me.cioco.inventorycleaner.core.ConfigSnapshot;
+import me.cioco.inventorycleaner.core.ConfigWriter;
+import me.cioco.inventorycleaner.core.ContainerScanner;
+import me.cioco.inventorycleaner.core.DirtySlotTracker;
+import me.cioco.inventorycleaner.core.ItemQuota;
+import me.cioco.inventorycleaner.core.ItemRule;
+import me.cioco.inventorycleaner.core.ProfileBindings;
+import me.cioco.inventorycleaner.core.ProfileRepository;
+import me.cioco.inventorycleaner.core.QuotaCounter;
+import me.cioco.inventorycleaner.core.RuleTable;
+import me.cioco.inventorycleaner.core.SlotSelector;
+import me.cioco.inventorycleaner.core.ThrowLog;
+import me.cioco.inventorycleaner.core.jfr.ConfigIoEvent;
+import me.cioco.inventorycleaner.core.jfr.ThrowEvent;
 import net.fabricmc.api.ClientModInitializer;
-import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.screen.ingame.InventoryScreen;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.client.network.PlayerListEntry;
+import net.minecraft.client.network.ServerInfo;
+import net.minecraft.component.DataComponentTypes;
+import net.minecraft.component.type.PotionContentsComponent;
+import net.minecraft.enchantment.EnchantmentHelper;
+import net.minecraft.inventory.Inventory;
+import net.minecraft.inventory.SimpleInventory;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
+import net.minecraft.network.packet.c2s.play.CloseHandledScreenC2SPacket;
 import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.screen.Generic3x3ContainerScreenHandler;
+import net.minecraft.screen.GenericContainerScreenHandler;
+import net.minecraft.screen.HopperScreenHandler;
 import net.minecraft.screen.PlayerScreenHandler;
+import net.minecraft.screen.ScreenHandler;
+import net.minecraft.screen.ScreenHandlerListener;
+import net.minecraft.screen.ShulkerBoxScreenHandler;
 import net.minecraft.screen.slot.Slot;
 import net.minecraft.screen.slot.SlotActionType;
 import net.minecraft.util.Identifier;
+import net.minecraft.world.World;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
 
 public class InventoryCleaner implements ClientModInitializer {
 
     private static final String DEFAULT_CONFIG_NAME = "default";
+    private static final long SAVE_DEBOUNCE_MILLIS = 500;
+    private static final int FIRST_INVENTORY_SLOT = 9;
+    private static final int INVENTORY_SLOT_COUNT = 36;
+    private static final int MAX_THROWS_PER_TICK = 9;
+    private static final int CONTAINER_SLOTS_PER_TICK = 128;
+    private static final DirtySlotTracker slotTracker = new DirtySlotTracker(FIRST_INVENTORY_SLOT, INVENTORY_SLOT_COUNT);
+    private static final CleanerTelemetry telemetry = new CleanerTelemetry(FIRST_INVENTORY_SLOT, INVENTORY_SLOT_COUNT);
+    private static final AdaptiveThrowLimiter throwLimiter = new AdaptiveThrowLimiter();
+    private static final ContainerScanner containerScanner = new ContainerScanner(CONTAINER_SLOTS_PER_TICK);
     public static boolean toggled = false;
     private final Set<Item> itemsToThrow = new HashSet<>();
     private final Set<Integer> lockedSlots = new HashSet<>();
+    private final List<ItemRule> componentRules = new ArrayList<>();
+    private final Set<String> itemTags = new TreeSet<>();
+    private final Map<String, int[]> resolvedTags = new ConcurrentHashMap<>();
+    private final Map<String, ItemQuota> quotas = new LinkedHashMap<>();
+    private final Set<String> containerItems = new TreeSet<>();
+    private final ConfigWriter configWriter = new ConfigWriter(SAVE_DEBOUNCE_MILLIS);
+    private final ProfileRepository profiles = new ProfileRepository(getConfigDir(), configWriter::isOwnWrite);
+    private final ProfileBindings bindings = new ProfileBindings();
+    private final ConfigChanges changes = new ConfigChanges();
+    private final ThrowLog throwLog = new ThrowLog(getConfigDir().resolve("throws.log"),
+            rawId -> Registries.ITEM.getId(Registries.ITEM.get(rawId)).toString());
+    private final Map<String, CompletableFuture<ParsedProfile>> compiledProfiles = new HashMap<>();
+    private String activeProfile = DEFAULT_CONFIG_NAME;
+    private String pendingProfile;
+    private int editDepth = 0;
+    private boolean rulesStale = false;
+    private boolean activeFromBinding = false;
+    private String serverAddress;
+    private String worldName;
+    private RegistryKey<World> lastDimension;
     private int throwDelayTicks = 20;
     private boolean autoOpen = false;
     private boolean inventoryOpenOnly = false;
+    private boolean binaryProfiles = false;
+    private boolean adaptiveThrottle = false;
+    private int minThrowDelayTicks = 1;
+    private int maxOutstandingThrows = 4;
+    private int throwsPerTick = 1;
+    private boolean containerCleaning = false;
     private CleaningMode mode = CleaningMode.BLACKLIST;
+    private RuleTable rules = RuleTable.EMPTY;
+    private RuleTable containerRules = RuleTable.EMPTY;
+    private long registryFingerprint = 0;
+    private boolean saveRequested = false;
 
-    private int tickCounter = 0;
+    private final CleanerLoop cleanerLoop = new CleanerLoop(slotTracker);
+    private final CleanerTick cleanerTick = new CleanerTick(slotTracker, cleanerLoop, telemetry, throwLimiter);
+    private final int[] throwSlots = new int[MAX_THROWS_PER_TICK];
 
     private boolean weOpenedInventory = false;
+    private boolean throwingInBackground = false;
+    private InventoryScreen throwScreen;
+    private PlayerScreenHandler trackedHandler;
+    private ScreenHandler scanHandler;
+    private ScreenHandler containerHandler;
+    private boolean[] containerSlots = new boolean[0];
+    private int containerCooldown = 0;
+    private final SlotSelector.SlotView slotView = new SlotSelector.SlotView() {
+        @Override
+        public int rawItemId(int slotId) {
+            return rawItemIdAt(slotId);
+        }
+
+        @Override
+        public int count(int slotId) {
+            return stackAt(slotId).getCount();
+        }
+
+        @Override
+        public int damage(int slotId) {
+            return stackAt(slotId).getDamage();
+        }
+
+        @Override
+        public int maxDamage(int slotId) {
+            return stackAt(slotId).getMaxDamage();
+        }
+
+        @Override
+        public boolean hasCustomName(int slotId) {
+            return stackAt(slotId).contains(DataComponentTypes.CUSTOM_NAME);
+        }
+
+        @Override
+        public boolean isEnchanted(int slotId) {
+            return EnchantmentHelper.hasEnchantments(stackAt(slotId));
+        }
+
+        @Override
+        public int potionId(int slotId) {
+            PotionContentsComponent contents = stackAt(slotId).get(DataComponentTypes.POTION_CONTENTS);
+            if (contents == null || contents.potion().isEmpty()) return -1;
+            return Registries.POTION.getRawId(contents.potion().get().value());
+        }
+    };
+    private final SlotSelector.SlotView containerView = slotId ->
+            slotId < containerSlots.length && containerSlots[slotId] ? rawItemIdAt(slotId) : -1;
+    private final ScreenHandlerListener slotListener = new ScreenHandlerListener() {
+        @Override
+        public void onSlotUpdate(ScreenHandler handler, int slotId, ItemStack stack) {
+            slotTracker.markSlot(slotId);
+        }
+
+        @Override
+        public void onPropertyUpdate(ScreenHandler handler, int property, int value) {
+        }
+    };
 
     @Override
     public void onInitializeClient() {
+        profiles.start();
+        throwLog.start();
+        throwLimiter.setAckListener(telemetry::onThrowAck);
+        profiles.setExternalChangeListener(entry -> MinecraftClient.getInstance().execute(() -> {
+            if (entry.name().equals(activeProfile)) applyProfile(entry);
+            if (compiledProfiles.containsKey(entry.name())) precompile(entry);
+        }));
+        bindings.load(getBindingsPath());
         loadConfiguration(DEFAULT_CONFIG_NAME);
 
-        ClientTickEvents.END_CLIENT_TICK.register(client -> {
-            if (toggled && client.player != null) {
-                cleanInventory(client);
-            }
+        ClientPlayConnectionEvents.JOIN.register((handler, sender, client) -> {
+            registryFingerprint = 0;
+            throwLimiter.reset();
+            throwScreen = null;
+            throwingInBackground = false;
+            ServerInfo server = handler.getServerInfo();
+            serverAddress = server != null ? server.address : null;
+            worldName = client.getServer() != null ? client.getServer().getSaveProperties().getLevelName() : null;
+            lastDimension = null;
+            resolvedTags.clear();
+            rebuildRules();
+            precompileBound();
+            changes.fire(ConfigChanges.ITEMS | ConfigChanges.BINDINGS);
         });
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> {
+            serverAddress = null;
+            worldName = null;
+            lastDimension = null;
+            changes.fire(ConfigChanges.BINDINGS);
+        });
+        CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> {
+            if (!client) return;
+            resolvedTags.clear();
+            rebuildRules();
+            precompileBound();
+            changes.fire(ConfigChanges.ITEMS);
+        });
+        ClientLifecycleEvents.CLIENT_STOPPING.register(client -> {
+            tickPersistence();
+            profiles.close();
+            configWriter.close();
+            throwLog.close();
+        });
+    }
+
+    public void tickCleaner(MinecraftClient client) {
+        if (toggled && client.player != null) {
+            cleanInventory(client);
+        }
+    }
+
+    public void tickPersistence() {
+        if (!saveRequested) return;
+        saveRequested = false;
+        saveConfiguration(activeProfile);
+    }
+
+    /**
+     * Switches to the profile bound to the current server or world and dimension when the dimension changes.
+     * Leaving every binding switches back to the default profile.
+     */
+    public void tickProfiles(MinecraftClient client) {
+        if (client.world == null) return;
+        RegistryKey<World> dimension = client.world.getRegistryKey();
+        if (dimension == lastDimension) return;
+        lastDimension = dimension;
+        changes.fire(ConfigChanges.BINDINGS);
+
+        String name = bindings.resolve(serverAddress, worldName, dimension.getValue().toString());
+        boolean bound = name != null;
+        if (!bound && !activeFromBinding) return;
+        activeFromBinding = bound;
+        switchProfile(client, bound ? name : DEFAULT_CONFIG_NAME);
+    }
+
+    private void switchProfile(MinecraftClient client, String name) {
+        if (name.equals(activeProfile) && pendingProfile == null) return;
+        tickPersistence();
+
+        CompletableFuture<ParsedProfile> future = compiledProfiles.get(name);
+        if (future == null) {
+            ProfileRepository.Entry entry = profiles.get(name);
+            if (entry == null) return;
+            future = precompile(entry);
+        }
+
+        pendingProfile = name;
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            applyCompiled(future.join());
+            return;
+        }
+        future.whenCompleteAsync((compiled, error) -> {
+            if (error != null) error.printStackTrace();
+            else if (name.equals(pendingProfile)) applyCompiled(compiled);
+        }, client);
+    }
+
+    private void precompileBound() {
+        compiledProfiles.clear();
+        Set<String> names = bindings.getBoundProfiles();
+        names.add(DEFAULT_CONFIG_NAME);
+        for (String name : names) {
+            ProfileRepository.Entry entry = profiles.get(name);
+            if (entry != null) precompile(entry);
+        }
+    }
+
+    private CompletableFuture<ParsedProfile> precompile(ProfileRepository.Entry entry) {
+        CompletableFuture<ParsedProfile> future = CompletableFuture.supplyAsync(() -> parseProfile(entry));
+        compiledProfiles.put(entry.name(), future);
+        return future;
+    }
+
+    public ThrowLog getThrowLog() {
+        return throwLog;
+    }
+
+    public String getActiveProfile() {
+        return activeProfile;
+    }
+
+    public Map<String, String> getBindings() {
+        return bindings.asMap();
+    }
+
+    public Set<String> getBindingKeys(String profile) {
+        return bindings.keysFor(profile);
+    }
+
+    /**
+     * Binding key for the current server, or the current world in singleplayer; null when not in game.
+     */
+    public String getPlaceKey() {
+        if (serverAddress != null) return ProfileBindings.serverKey(serverAddress);
+        if (worldName != null) return ProfileBindings.worldKey(worldName);
+        return null;
+    }
+
+    public String getDimensionKey() {
+        return lastDimension == null ? null : ProfileBindings.dimensionKey(lastDimension.getValue().toString());
+    }
+
+    public void bindProfile(String key, String profile) {
+        bindings.put(key, profile);
+        bindingsChanged();
+    }
+
+    public boolean unbind(String key) {
+        boolean removed = bindings.remove(key);
+        if (removed) bindingsChanged();
+        return removed;
+    }
+
+    /**
+     * Binds {@code profile} to {@code key}, or removes the binding if it already points there.
+     */
+    public boolean toggleBinding(String key, String profile) {
+        if (profile.equals(bindings.get(key))) {
+            unbind(key);
+            return false;
+        }
+        bindProfile(key, profile);
+        return true;
+    }
+
+    private void bindingsChanged() {
+        Properties properties = bindings.toProperties();
+        configWriter.submit(getBindingsPath(), output -> ProfileBindings.writeProperties(properties, output));
+        precompileBound();
+        lastDimension = null;
+        changes.fire(ConfigChanges.BINDINGS);
+    }
+
+    /**
+     * Registers a listener for {@link ConfigChanges} masks. Listeners run on the thread that made the change.
+     */
+    public void addChangeListener(IntConsumer listener) {
+        changes.addListener(listener);
+    }
+
+    public void removeChangeListener(IntConsumer listener) {
+        changes.removeListener(listener);
+    }
+
+    private Path getBindingsPath() {
+        return getConfigDir().resolveSibling("inventory-cleaner-bindings.properties");
+    }
+
+    public static DirtySlotTracker getSlotTracker() {
+        return slotTracker;
+    }
+
+    public static CleanerTelemetry getTelemetry() {
+        return telemetry;
+    }
+
+    public static AdaptiveThrowLimiter getThrowLimiter() {
+        return throwLimiter;
+    }
+
+    public static ContainerScanner getContainerScanner() {
+        return containerScanner;
     }
 
     public CleaningMode getMode() {
@@ -54,18 +401,244 @@ public class InventoryCleaner implements ClientModInitializer {
 
     public void setMode(CleaningMode mode) {
         this.mode = mode;
+        rebuildRules();
+        changes.fire(ConfigChanges.SETTINGS);
     }
 
     public Set<Item> getItemsToThrow() {
-        return itemsToThrow;
+        return Collections.unmodifiableSet(itemsToThrow);
     }
 
     public Set<Integer> getLockedSlots() {
-        return lockedSlots;
+        return Collections.unmodifiableSet(lockedSlots);
+    }
+
+    public RuleTable getRules() {
+        return rules;
+    }
+
+    public boolean isItemListed(Item item) {
+        return rules.containsItem(Registries.ITEM.getRawId(item));
     }
 
     public boolean isSlotLocked(int slotId) {
-        return lockedSlots.contains(slotId);
+        return rules.isSlotLocked(slotId);
+    }
+
+    /**
+     * Runs a batch of edits as one change: rules are compiled once when the outermost batch ends, followed by a
+     * single save request.
+     */
+    public void edit(Runnable edits) {
+        editDepth++;
+        changes.begin();
+        try {
+            edits.run();
+        } finally {
+            if (--editDepth == 0) {
+                if (rulesStale) {
+                    rulesStale = false;
+                    rebuildRules();
+                }
+                saveConfiguration();
+            }
+            changes.end();
+        }
+    }
+
+    public boolean setItemListed(Item item, boolean listed) {
+        boolean changed = listed ? itemsToThrow.add(item) : itemsToThrow.remove(item);
+        if (changed) itemsChanged();
+        return changed;
+    }
+
+    public boolean setItemTag(String tag, boolean listed) {
+        boolean changed = listed ? itemTags.add(tag) : itemTags.remove(tag);
+        if (changed) itemsChanged();
+        return changed;
+    }
+
+    public boolean setContainerItem(String target, boolean listed) {
+        boolean changed = listed ? containerItems.add(target) : containerItems.remove(target);
+        if (changed) itemsChanged();
+        return changed;
+    }
+
+    public boolean setSlotLocked(int slotId, boolean locked) {
+        boolean changed = locked ? lockedSlots.add(slotId) : lockedSlots.remove(slotId);
+        if (changed) locksChanged();
+        return changed;
+    }
+
+    public boolean toggleItem(Item item) {
+        boolean added = itemsToThrow.add(item);
+        if (!added) itemsToThrow.remove(item);
+        itemsChanged();
+        return added;
+    }
+
+    public void clearItems() {
+        itemsToThrow.clear();
+        itemTags.clear();
+        quotas.clear();
+        containerItems.clear();
+        itemsChanged();
+    }
+
+    public Set<String> getItemTags() {
+        return Collections.unmodifiableSet(itemTags);
+    }
+
+    public boolean toggleItemTag(String tag) {
+        boolean added = itemTags.add(tag);
+        if (!added) itemTags.remove(tag);
+        itemsChanged();
+        return added;
+    }
+
+    public List<ItemQuota> getQuotas() {
+        return new ArrayList<>(quotas.values());
+    }
+
+    public ItemQuota getQuota(String target) {
+        return quotas.get(target);
+    }
+
+    public void putQuota(ItemQuota quota) {
+        quotas.put(quota.target(), quota);
+        itemsChanged();
+    }
+
+    public boolean removeQuota(String target) {
+        boolean removed = quotas.remove(target) != null;
+        if (removed) itemsChanged();
+        return removed;
+    }
+
+    public boolean isContainerCleaning() {
+        return containerCleaning;
+    }
+
+    public void setContainerCleaning(boolean flag) {
+        this.containerCleaning = flag;
+        containerScanner.markAll();
+        changes.fire(ConfigChanges.SETTINGS);
+    }
+
+    public Set<String> getContainerItems() {
+        return Collections.unmodifiableSet(containerItems);
+    }
+
+    /**
+     * Adds or removes an item id or {@code #tag} from the list of items thrown out of open containers.
+     */
+    public boolean toggleContainerItem(String target) {
+        boolean added = containerItems.add(target);
+        if (!added) containerItems.remove(target);
+        itemsChanged();
+        return added;
+    }
+
+    public int getTagSize(String tag) {
+        return resolveTag(tag).length;
+    }
+
+    public boolean toggleSlotLock(int slotId) {
+        boolean locked = lockedSlots.add(slotId);
+        if (!locked) lockedSlots.remove(slotId);
+        locksChanged();
+        return locked;
+    }
+
+    public void clearLockedSlots() {
+        lockedSlots.clear();
+        locksChanged();
+    }
+
+    public List<String> getComponentRules() {
+        List<String> lines = new ArrayList<>(componentRules.size());
+        for (ItemRule rule : componentRules) lines.add(rule.source());
+        return lines;
+    }
+
+    public void setComponentRules(List<String> lines) {
+        List<ItemRule> parsed = new ArrayList<>(lines.size());
+        for (String line : lines) parsed.add(ItemRule.parse(line));
+        componentRules.clear();
+        componentRules.addAll(parsed);
+        itemsChanged();
+    }
+
+    private void itemsChanged() {
+        rebuildRules();
+        changes.fire(ConfigChanges.ITEMS);
+    }
+
+    private void locksChanged() {
+        rebuildRules();
+        changes.fire(ConfigChanges.LOCKS);
+    }
+
+    private void rebuildRules() {
+        if (editDepth > 0) {
+            rulesStale = true;
+            return;
+        }
+        rules = compileRules(itemsToThrow, itemTags, lockedSlots, componentRules, quotas.values(), mode);
+        containerRules = compileContainerRules(containerItems);
+        slotTracker.markAll();
+        containerScanner.markAll();
+    }
+
+    private RuleTable compileRules(Collection<Item> items, Collection<String> tags, Collection<Integer> locked,
+                                   List<ItemRule> itemRules, Collection<ItemQuota> itemQuotas, CleaningMode cleaningMode) {
+        int tagged = 0;
+        for (String tag : tags) tagged += resolveTag(tag).length;
+
+        int[] rawIds = new int[items.size() + tagged];
+        int i = 0;
+        for (Item item : items) rawIds[i++] = Registries.ITEM.getRawId(item);
+        for (String tag : tags)
+            for (int rawId : resolveTag(tag)) rawIds[i++] = rawId;
+
+        int[] slots = new int[locked.size()];
+        i = 0;
+        for (int slot : locked) slots[i++] = slot;
+
+        ComponentRules compiled = ComponentRules.compile(itemRules,
+                id -> rawIdOf(Registries.ITEM, id), this::resolveTag, id -> rawIdOf(Registries.POTION, id));
+        QuotaCounter quotaCounter = QuotaCounter.compile(new ArrayList<>(itemQuotas),
+                id -> rawIdOf(Registries.ITEM, id), this::resolveTag);
+        return RuleTable.compile(rawIds, slots, cleaningMode == CleaningMode.WHITELIST, compiled, quotaCounter);
+    }
+
+    private RuleTable compileContainerRules(Collection<String> targets) {
+        List<Integer> containerIds = new ArrayList<>();
+        for (String target : targets) {
+            if (target.startsWith(ItemRule.TAG_PREFIX)) {
+                for (int rawId : resolveTag(target.substring(ItemRule.TAG_PREFIX.length()))) containerIds.add(rawId);
+            } else {
+                containerIds.add(rawIdOf(Registries.ITEM, target));
+            }
+        }
+        return RuleTable.compile(containerIds.stream().mapToInt(Integer::intValue).toArray(), new int[0], false);
+    }
+
+    private int[] resolveTag(String tag) {
+        return resolvedTags.computeIfAbsent(tag, key -> {
+            Identifier id = Identifier.tryParse(key);
+            if (id == null) return new int[0];
+
+            List<Integer> members = new ArrayList<>();
+            for (RegistryEntry<Item> entry : Registries.ITEM.iterateEntries(TagKey.of(RegistryKeys.ITEM, id)))
+                members.add(Registries.ITEM.getRawId(entry.value()));
+            return members.stream().mapToInt(Integer::intValue).toArray();
+        });
+    }
+
+    private static <T> int rawIdOf(Registry<T> registry, String key) {
+        Identifier id = Identifier.tryParse(key);
+        return id != null && registry.containsId(id) ? registry.getRawId(registry.get(id)) : -1;
     }
 
     public int getThrowDelayTicks() {
@@ -74,6 +647,46 @@ public class InventoryCleaner implements ClientModInitializer {
 
     public void setThrowDelayTicks(int ticks) {
         this.throwDelayTicks = Math.max(1, ticks);
+        changes.fire(ConfigChanges.SETTINGS);
+    }
+
+    public int getThrowsPerTick() {
+        return throwsPerTick;
+    }
+
+    public void setThrowsPerTick(int count) {
+        this.throwsPerTick = Math.max(1, Math.min(MAX_THROWS_PER_TICK, count));
+        changes.fire(ConfigChanges.SETTINGS);
+    }
+
+    public boolean isAdaptiveThrottle() {
+        return adaptiveThrottle;
+    }
+
+    public void setAdaptiveThrottle(boolean flag) {
+        this.adaptiveThrottle = flag;
+        throwLimiter.reset();
+        changes.fire(ConfigChanges.SETTINGS);
+    }
+
+    public int getMinThrowDelayTicks() {
+        return minThrowDelayTicks;
+    }
+
+    public void setMinThrowDelayTicks(int ticks) {
+        this.minThrowDelayTicks = Math.max(1, ticks);
+        throwLimiter.configure(minThrowDelayTicks, maxOutstandingThrows);
+        changes.fire(ConfigChanges.SETTINGS);
+    }
+
+    public int getMaxOutstandingThrows() {
+        return maxOutstandingThrows;
+    }
+
+    public void setMaxOutstandingThrows(int count) {
+        this.maxOutstandingThrows = Math.max(1, count);
+        throwLimiter.configure(minThrowDelayTicks, maxOutstandingThrows);
+        changes.fire(ConfigChanges.SETTINGS);
     }
 
     public boolean isInventoryOpenOnly() {
@@ -82,94 +695,256 @@ public class InventoryCleaner implements ClientModInitializer {
 
     public void setInventoryOpenOnly(boolean flag) {
         this.inventoryOpenOnly = flag;
+        changes.fire(ConfigChanges.SETTINGS);
+    }
+
+    public boolean isBinaryProfiles() {
+        return binaryProfiles;
     }
 
+    public void setBinaryProfiles(boolean flag) {
+        this.binaryProfiles = flag;
+        changes.fire(ConfigChanges.SETTINGS);
+    }
+
+    /**
+     * Requests a save of the active profile; repeated requests are coalesced into one save on the next
+     * persistence tick.
+     */
     public void saveConfiguration() {
-        saveConfiguration(DEFAULT_CONFIG_NAME);
+        saveRequested = true;
     }
 
     public void saveConfiguration(String name) {
-        try {
-            Path configDir = getConfigDir();
-            Files.createDirectories(configDir);
-            Path configPath = configDir.resolve(name + ".properties");
+        ConfigIoEvent event = new ConfigIoEvent();
+        event.begin();
+        ConfigSnapshot snapshot = snapshot(name);
+        if (binaryProfiles) writeBinary(snapshot);
+        else writeProperties(snapshot);
+        if (compiledProfiles.containsKey(name))
+            compiledProfiles.put(name, CompletableFuture.completedFuture(currentCompiled(snapshot)));
+        commitConfigIo(event, "save", name, binaryProfiles, true);
+    }
 
-            Properties properties = new Properties();
-            properties.setProperty("toggled", Boolean.toString(toggled));
-            properties.setProperty("autoopen", String.valueOf(autoOpen));
-            properties.setProperty("inventoryOpenOnly", String.valueOf(inventoryOpenOnly));
-            properties.setProperty("delay", String.valueOf(throwDelayTicks));
-            properties.setProperty("mode", mode.name());
+    public void exportConfiguration(String name) {
+        ConfigIoEvent event = new ConfigIoEvent();
+        event.begin();
+        writeProperties(snapshot(name));
+        commitConfigIo(event, "export", name, false, true);
+    }
 
-            for (Item item : itemsToThrow)
-                properties.setProperty(Registries.ITEM.getId(item).toString(), "true");
+    public void flushConfiguration() {
+        tickPersistence();
+        configWriter.flush();
+    }
 
-            for (Integer slot : lockedSlots)
-                properties.setProperty("lock_" + slot, "true");
+    public int getPendingWrites() {
+        return configWriter.getPendingCount();
+    }
 
-            try (OutputStream output = Files.newOutputStream(configPath)) {
-                properties.store(output, "InventoryCleaner configuration: " + name);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+    private void writeProperties(ConfigSnapshot snapshot) {
+        String name = snapshot.name();
+        configWriter.submit(getConfigDir().resolve(name + ProfileRepository.PROPERTIES_EXTENSION),
+                snapshot::writeProperties);
+        profiles.put(new ProfileRepository.Entry(name, snapshot, null, 0L, false, System.currentTimeMillis()));
+        changes.fire(ConfigChanges.PROFILES);
+    }
+
+    private void writeBinary(ConfigSnapshot snapshot) {
+        String name = snapshot.name();
+        int[] rawIds = new int[itemsToThrow.size()];
+        int i = 0;
+        for (Item item : itemsToThrow) rawIds[i++] = Registries.ITEM.getRawId(item);
+        long fingerprint = getRegistryFingerprint();
+
+        configWriter.submit(getConfigDir().resolve(name + BinaryProfileCodec.EXTENSION),
+                output -> BinaryProfileCodec.write(output, snapshot, rawIds, fingerprint));
+        profiles.put(new ProfileRepository.Entry(name, snapshot, rawIds, fingerprint, true, System.currentTimeMillis()));
+        changes.fire(ConfigChanges.PROFILES);
+    }
+
+    private ConfigSnapshot snapshot(String name) {
+        List<String> ids = new ArrayList<>(itemsToThrow.size());
+        for (Item item : itemsToThrow)
+            ids.add(Registries.ITEM.getId(item).toString());
+
+        return new ConfigSnapshot(name, toggled, autoOpen, inventoryOpenOnly, binaryProfiles, throwDelayTicks,
+                mode.name(), ids, rules.getLockedSlotMask(), getComponentRules(), new ArrayList<>(itemTags), quotaSpecs(),
+                adaptiveThrottle, minThrowDelayTicks, maxOutstandingThrows, throwsPerTick,
+                containerCleaning, new ArrayList<>(containerItems));
+    }
+
+    private List<String> quotaSpecs() {
+        List<String> specs = new ArrayList<>(quotas.size());
+        for (ItemQuota quota : quotas.values()) specs.add(quota.toString());
+        return specs;
+    }
+
+    private long getRegistryFingerprint() {
+        if (registryFingerprint == 0) {
+            long hash = Registries.ITEM.size();
+            for (Item item : Registries.ITEM)
+                hash = hash * 31 + Registries.ITEM.getId(item).hashCode();
+            registryFingerprint = hash == 0 ? 1 : hash;
         }
+        return registryFingerprint;
+    }
+
+    public List<ProfileRepository.Entry> getProfiles() {
+        return profiles.list();
+    }
+
+    public int getProfilesVersion() {
+        return profiles.getVersion();
+    }
+
+    public void deleteProfile(String name) throws IOException {
+        profiles.delete(name);
+        changes.fire(ConfigChanges.PROFILES);
     }
 
     public boolean loadConfiguration(String name) {
-        Path configPath = getConfigDir().resolve(name + ".properties");
-        if (!Files.exists(configPath)) return false;
+        ConfigIoEvent event = new ConfigIoEvent();
+        event.begin();
+        ProfileRepository.Entry entry = profiles.get(name);
+        if (entry == null) {
+            commitConfigIo(event, "load", name, false, false);
+            return false;
+        }
 
-        itemsToThrow.clear();
-        lockedSlots.clear();
+        applyProfile(entry);
+        activeFromBinding = false;
+        if (!entry.binary() && binaryProfiles) writeBinary(snapshot(name));
+        commitConfigIo(event, "load", name, entry.binary(), true);
+        return true;
+    }
 
-        try (InputStream input = Files.newInputStream(configPath)) {
-            Properties properties = new Properties();
-            properties.load(input);
+    private void commitConfigIo(ConfigIoEvent event, String operation, String name, boolean binary, boolean success) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.operation = operation;
+        event.profile = name;
+        event.binary = binary;
+        event.items = itemsToThrow.size();
+        event.success = success;
+        event.commit();
+    }
 
-            if (properties.containsKey("toggled"))
-                toggled = Boolean.parseBoolean(properties.getProperty("toggled"));
+    private void applyProfile(ProfileRepository.Entry entry) {
+        applyCompiled(parseProfile(entry));
+    }
 
-            if (properties.containsKey("autoopen"))
-                this.autoOpen = Boolean.parseBoolean(properties.getProperty("autoopen"));
+    /**
+     * Parses the rules and quotas of a profile. Touches neither the registries nor the tags, so it can run off
+     * the client thread while they are being reloaded.
+     */
+    private static ParsedProfile parseProfile(ProfileRepository.Entry entry) {
+        ConfigSnapshot profile = entry.snapshot();
 
-            if (properties.containsKey("inventoryOpenOnly"))
-                this.inventoryOpenOnly = Boolean.parseBoolean(properties.getProperty("inventoryOpenOnly"));
+        Set<Integer> locked = new HashSet<>();
+        for (long slots = profile.lockedSlotMask(); slots != 0; slots &= slots - 1)
+            locked.add(Long.numberOfTrailingZeros(slots));
 
-            if (properties.containsKey("delay")) {
-                try {
-                    throwDelayTicks = Integer.parseInt(properties.getProperty("delay"));
-                } catch (NumberFormatException ignored) {
-                }
+        List<ItemRule> itemRules = new ArrayList<>();
+        for (String line : profile.rules()) {
+            try {
+                itemRules.add(ItemRule.parse(line));
+            } catch (IllegalArgumentException e) {
+                e.printStackTrace();
             }
+        }
 
-            if (properties.containsKey("mode")) {
-                try {
-                    this.mode = CleaningMode.valueOf(properties.getProperty("mode").toUpperCase());
-                } catch (IllegalArgumentException e) {
-                    this.mode = CleaningMode.BLACKLIST;
-                }
+        Map<String, ItemQuota> itemQuotas = new LinkedHashMap<>();
+        for (String spec : profile.quotas()) {
+            try {
+                ItemQuota quota = ItemQuota.parse(spec);
+                itemQuotas.put(quota.target(), quota);
+            } catch (IllegalArgumentException e) {
+                e.printStackTrace();
             }
+        }
 
-            for (String key : properties.stringPropertyNames()) {
-                if (key.equals("toggled") || key.equals("delay") || key.equals("mode")
-                        || key.equals("autoopen") || key.equals("inventoryOpenOnly")) continue;
-
-                if (key.startsWith("lock_")) {
-                    try {
-                        lockedSlots.add(Integer.parseInt(key.substring(5)));
-                    } catch (NumberFormatException ignored) {
-                    }
-                } else {
-                    Identifier id = Identifier.of(key);
-                    if (Registries.ITEM.containsId(id))
-                        itemsToThrow.add(Registries.ITEM.get(id));
-                }
-            }
-            return true;
+        CleaningMode cleaningMode;
+        try {
+            cleaningMode = CleaningMode.valueOf(profile.mode());
+        } catch (IllegalArgumentException e) {
+            cleaningMode = CleaningMode.BLACKLIST;
+        }
 
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
+        return new ParsedProfile(entry.name(), profile, cleaningMode, entry.rawItemIds(),
+                entry.registryFingerprint(), locked, itemRules, itemQuotas);
+    }
+
+    private ParsedProfile currentCompiled(ConfigSnapshot snapshot) {
+        int[] rawIds = new int[itemsToThrow.size()];
+        int i = 0;
+        for (Item item : itemsToThrow) rawIds[i++] = Registries.ITEM.getRawId(item);
+        return new ParsedProfile(snapshot.name(), snapshot, mode, rawIds, getRegistryFingerprint(),
+                new HashSet<>(lockedSlots), new ArrayList<>(componentRules), new LinkedHashMap<>(quotas));
+    }
+
+    private Set<Item> resolveItems(ParsedProfile parsed) {
+        Set<Item> items = new HashSet<>();
+        int[] rawIds = BinaryProfileCodec.resolveRawIds(parsed.rawItemIds(), parsed.registryFingerprint(),
+                parsed.snapshot().itemIds(), getRegistryFingerprint(), id -> rawIdOf(Registries.ITEM, id));
+        for (int rawId : rawIds) {
+            Item item = Registries.ITEM.get(rawId);
+            if (item != null) items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * Resolves a parsed profile against the current registries and tags, compiles its rule tables and makes it
+     * the active profile. Runs on the client thread only.
+     */
+    private void applyCompiled(ParsedProfile compiled) {
+        changes.begin();
+        ConfigSnapshot profile = compiled.snapshot();
+        itemsToThrow.clear();
+        itemsToThrow.addAll(resolveItems(compiled));
+        lockedSlots.clear();
+        lockedSlots.addAll(compiled.lockedSlots());
+        componentRules.clear();
+        componentRules.addAll(compiled.componentRules());
+        itemTags.clear();
+        itemTags.addAll(profile.itemTags());
+        quotas.clear();
+        quotas.putAll(compiled.quotas());
+        containerItems.clear();
+        containerItems.addAll(profile.containerItems());
+
+        toggled = profile.toggled();
+        this.autoOpen = profile.autoOpen();
+        this.inventoryOpenOnly = profile.inventoryOpenOnly();
+        this.binaryProfiles = profile.binaryProfiles();
+        throwDelayTicks = Math.max(1, profile.throwDelayTicks());
+        this.adaptiveThrottle = profile.adaptiveThrottle();
+        setMinThrowDelayTicks(profile.minThrowDelayTicks());
+        setMaxOutstandingThrows(profile.maxOutstandingThrows());
+        setThrowsPerTick(profile.throwsPerTick());
+        this.containerCleaning = profile.containerCleaning();
+        this.mode = compiled.mode();
+
+        activeProfile = compiled.name();
+        pendingProfile = null;
+        throwLog.setProfile(activeProfile);
+        throwLimiter.reset();
+        rebuildRules();
+        changes.fire(ConfigChanges.ITEMS | ConfigChanges.LOCKS | ConfigChanges.SETTINGS | ConfigChanges.ACTIVE_PROFILE);
+        changes.end();
+    }
+
+    /**
+     * Resolves a file name inside the config directory, or returns null if it points outside of it.
+     */
+    public Path resolveConfigFile(String name) {
+        Path dir = getConfigDir().toAbsolutePath().normalize();
+        try {
+            Path path = dir.resolve(name).normalize();
+            return path.startsWith(dir) ? path : null;
+        } catch (InvalidPathException e) {
+            return null;
         }
     }
 
@@ -179,57 +954,170 @@ public class InventoryCleaner implements ClientModInitializer {
 
     private void cleanInventory(MinecraftClient client) {
         if (client.player == null) return;
-        if (++tickCounter % throwDelayTicks != 0) return;
 
         PlayerScreenHandler handler = client.player.playerScreenHandler;
-        Slot targetSlot = findThrowableSlot(handler);
+        if (handler != trackedHandler) {
+            handler.addListener(slotListener);
+            trackedHandler = handler;
+            slotTracker.markAll();
+        }
 
-        if (targetSlot == null) {
-            maybeCloseInventory(client);
+        if (client.player.currentScreenHandler != handler) {
+            if (containerCleaning) cleanContainer(client, client.player.currentScreenHandler);
+            return;
+        }
+
+        scanHandler = handler;
+        if (adaptiveThrottle) reportPing(client);
+        int count = cleanerTick.run(rules, slotView, adaptiveThrottle, throwDelayTicks, throwsPerTick,
+                handler.getRevision(), System.nanoTime(), throwSlots);
+        if (count == CleanerLoop.COOLING_DOWN || count == CleanerLoop.THROTTLED) return;
+
+        if (count < 0) {
+            if (weOpenedInventory || throwingInBackground) maybeCloseInventory(client);
             return;
         }
 
         boolean inventoryWasOpen = client.currentScreen instanceof InventoryScreen;
         if (!inventoryWasOpen) {
-            client.setScreen(new InventoryScreen(client.player));
-            weOpenedInventory = true;
+            if (inventoryOpenOnly) {
+                client.setScreen(getThrowScreen(client));
+                weOpenedInventory = true;
+            } else {
+                throwingInBackground = true;
+            }
+        }
+
+        for (int i = 0; i < count; i++)
+            throwSlot(client, handler, throwSlots[i], !inventoryWasOpen && inventoryOpenOnly);
+
+        if ((weOpenedInventory || throwingInBackground) && !hasQueuedThrows(handler)) {
+            maybeCloseInventory(client);
+        }
+    }
+
+    private static void reportPing(MinecraftClient client) {
+        ClientPlayNetworkHandler network = client.getNetworkHandler();
+        PlayerListEntry self = network == null ? null : network.getPlayerListEntry(client.player.getUuid());
+        if (self != null) throwLimiter.onPing(self.getLatency() * 1_000_000L);
+    }
+
+    private void cleanContainer(MinecraftClient client, ScreenHandler handler) {
+        if (handler != containerHandler) {
+            containerHandler = handler;
+            containerSlots = storageSlots(handler);
+            containerScanner.reset(handler.slots.size());
+            containerCooldown = 0;
+        }
+        if (containerCooldown > 0) {
+            containerCooldown--;
+            return;
+        }
+        if (containerScanner.isIdle()) return;
+
+        scanHandler = handler;
+        containerScanner.beginTick();
+        int thrown = 0;
+        while (thrown < throwsPerTick) {
+            int slotId = containerScanner.next(containerRules, containerView);
+            if (slotId < 0) break;
+            throwSlot(client, handler, slotId, false);
+            thrown++;
         }
+        if (thrown > 0) containerCooldown = throwDelayTicks - 1;
+    }
+
+    /**
+     * Slots of a storage handler that belong to the container rather than the player. Besides the vanilla
+     * storage handlers, a handler counts as storage only if every slot is a plain {@link Slot} and all of the
+     * non-player slots share one plain {@link SimpleInventory}, which leaves crafting, output and fuel slots alone.
+     */
+    private static boolean[] storageSlots(ScreenHandler handler) {
+        boolean[] storage = new boolean[handler.slots.size()];
+        boolean vanillaStorage = handler instanceof GenericContainerScreenHandler
+                || handler instanceof ShulkerBoxScreenHandler
+                || handler instanceof HopperScreenHandler
+                || handler instanceof Generic3x3ContainerScreenHandler;
+
+        Inventory container = null;
+        for (int i = 0; i < storage.length; i++) {
+            Slot slot = handler.slots.get(i);
+            if (slot.inventory instanceof PlayerInventory) continue;
+            if (!vanillaStorage) {
+                if (slot.getClass() != Slot.class || slot.inventory.getClass() != SimpleInventory.class)
+                    return new boolean[storage.length];
+                if (container == null) container = slot.inventory;
+                else if (slot.inventory != container) return new boolean[storage.length];
+            }
+            storage[i] = true;
+        }
+        return storage;
+    }
+
+    private void throwSlot(MinecraftClient client, ScreenHandler handler, int slotId, boolean openedInventory) {
+        ThrowEvent throwEvent = ThrowEvent.isRecording() ? new ThrowEvent() : null;
+        if (throwEvent != null) throwEvent.begin();
+        ItemStack thrown = handler.getSlot(slotId).getStack();
+        Item thrownItem = thrown.getItem();
+        int thrownCount = thrown.getCount();
 
         client.interactionManager.clickSlot(
-                handler.syncId, targetSlot.id, 1, SlotActionType.THROW, client.player
+                handler.syncId, slotId, 1, SlotActionType.THROW, client.player
         );
+        telemetry.onThrow(handler instanceof PlayerScreenHandler ? slotId : -1, System.nanoTime());
+        throwLog.record(Registries.ITEM.getRawId(thrownItem), thrownCount, System.currentTimeMillis());
 
-        if (weOpenedInventory) {
-            Slot next = findThrowableSlot(handler);
-            if (next == null) {
-                maybeCloseInventory(client);
-            }
+        if (throwEvent == null) return;
+        throwEvent.end();
+        if (throwEvent.shouldCommit()) {
+            throwEvent.slot = slotId;
+            throwEvent.item = Registries.ITEM.getId(thrownItem).toString();
+            throwEvent.count = thrownCount;
+            throwEvent.openedInventory = openedInventory;
+            throwEvent.commit();
         }
     }
 
-    private Slot findThrowableSlot(PlayerScreenHandler handler) {
-        for (int i = 9; i <= 44; i++) {
-            Slot slot = handler.getSlot(i);
-            ItemStack stack = slot.getStack();
-            if (stack.isEmpty()) continue;
+    private boolean hasQueuedThrows(PlayerScreenHandler handler) {
+        scanHandler = handler;
+        return cleanerTick.planFollowUp(rules, slotView, adaptiveThrottle);
+    }
 
-            int vanillaSlot = (slot.id >= 36) ? slot.id - 36 : slot.id;
-            if (isSlotLocked(vanillaSlot)) continue;
+    private int rawItemIdAt(int slotId) {
+        ItemStack stack = stackAt(slotId);
+        return stack.isEmpty() ? -1 : Registries.ITEM.getRawId(stack.getItem());
+    }
 
-            boolean isInList = itemsToThrow.contains(stack.getItem());
-            boolean shouldThrow = (mode == CleaningMode.BLACKLIST) == isInList;
+    private ItemStack stackAt(int slotId) {
+        return scanHandler.getSlot(slotId).getStack();
+    }
 
-            if (shouldThrow) return slot;
-        }
-        return null;
+    private InventoryScreen getThrowScreen(MinecraftClient client) {
+        if (throwScreen == null || throwScreen.getScreenHandler() != client.player.playerScreenHandler)
+            throwScreen = new InventoryScreen(client.player);
+        return throwScreen;
     }
 
     private void maybeCloseInventory(MinecraftClient client) {
         if (weOpenedInventory && client.currentScreen instanceof InventoryScreen) {
             client.setScreen(null);
         }
+        if (throwingInBackground && client.currentScreen == null && client.player != null) {
+            PlayerScreenHandler handler = client.player.playerScreenHandler;
+            client.player.networkHandler.sendPacket(new CloseHandledScreenC2SPacket(handler.syncId));
+        }
         weOpenedInventory = false;
+        throwingInBackground = false;
     }
 
     public enum CleaningMode {BLACKLIST, WHITELIST}
+
+    /**
+     * A profile with its rules and quotas parsed but its items and tags not yet resolved. The raw item ids are
+     * only used while the registry fingerprint still matches.
+     */
+    private record ParsedProfile(String name, ConfigSnapshot snapshot, CleaningMode mode, int[] rawItemIds,
+                                 long registryFingerprint, Set<Integer> lockedSlots, List<ItemRule> componentRules,
+                                 Map<String, ItemQuota> quotas) {
+    }
 }
\ No newline at end of file
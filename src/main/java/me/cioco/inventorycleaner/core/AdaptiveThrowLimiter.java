@@ -0,0 +1,283 @@
+package me.cioco.inventorycleaner.core;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Congestion-control style limit on throws in flight.
+ * <p>
+ * Every throw remembers the handler revision its click was based on. A vanilla server stays silent when the
+ * click's revision is current, since the client's prediction then matches, and resyncs the whole inventory
+ * when it is stale. So a throw whose revision is still the latest one seen counts as acknowledged once a quiet
+ * period of one round trip plus a tick has passed. A throw that went stale waits for the resync, which acks it
+ * when the thrown slot is empty and corrects it otherwise. Without a resync it is acknowledged after twice the
+ * quiet period, since the server may have handled it before its revision moved on. A resync for a throw whose
+ * revision was current means the server refused the click, so if the slot still holds the thrown stack the
+ * throw is rejected. Slot updates for a thrown slot ack it early when empty and correct it, ending its flight,
+ * when not. Round trip samples come from those early acks and from the server's latency reports.
+ * <p>
+ * Acks grow the window, by one per ack up to the slow start threshold and by {@code 1/window} after it. A
+ * rejection halves the window and stretches a pacing interval by half, at most once per quiet period so that
+ * one burst of rejected throws backs off once. Every ack shrinks the interval by a tenth. Throws are spaced by
+ * the larger of that interval and the round trip time spread over the window, never faster than
+ * {@code minDelayTicks} and never with more than {@code maxOutstanding} in flight.
+ */
+public class AdaptiveThrowLimiter {
+
+    public static final long NANOS_PER_TICK = 50_000_000L;
+
+    private static final int MAX_WINDOW = 16;
+    private static final int MAX_DELAY_TICKS = 40;
+    private static final double PACING_DECAY = 0.9;
+    private static final long INITIAL_RTT_NANOS = 100_000_000L;
+    private static final long MIN_QUIET_NANOS = 2 * NANOS_PER_TICK;
+    private static final long MAX_QUIET_NANOS = 3_000_000_000L;
+
+    private final long[] sentAt = new long[MAX_WINDOW];
+    private final int[] sentSlots = new int[MAX_WINDOW];
+    private final int[] sentItems = new int[MAX_WINDOW];
+    private final int[] sentCounts = new int[MAX_WINDOW];
+    private final int[] sentRevisions = new int[MAX_WINDOW];
+    private int head = 0;
+    private int size = 0;
+
+    private int minDelayTicks = 1;
+    private int maxOutstanding = 4;
+    private double window = 1;
+    private double threshold = MAX_WINDOW;
+    private double pacingTicks = 0;
+    private long smoothedRtt = -1;
+    private long rttVariance = 0;
+    private long lastPing = -1;
+    private long lastBackOff = Long.MIN_VALUE;
+    private int revision = 0;
+    private long acks = 0;
+    private long rejections = 0;
+    private long corrections = 0;
+    private LongConsumer ackListener;
+
+    public void configure(int minDelayTicks, int maxOutstanding) {
+        this.minDelayTicks = Math.max(1, minDelayTicks);
+        this.maxOutstanding = Math.max(1, Math.min(MAX_WINDOW, maxOutstanding));
+        window = Math.min(window, this.maxOutstanding);
+    }
+
+    /**
+     * Receives the time from sending to acknowledging every throw, in nanoseconds.
+     */
+    public void setAckListener(LongConsumer listener) {
+        this.ackListener = listener;
+    }
+
+    public void reset() {
+        head = size = 0;
+        window = 1;
+        threshold = MAX_WINDOW;
+        pacingTicks = 0;
+        smoothedRtt = -1;
+        rttVariance = 0;
+        lastPing = -1;
+        lastBackOff = Long.MIN_VALUE;
+    }
+
+    public boolean canSend(long now) {
+        settle(now);
+        return size < (int) window;
+    }
+
+    /**
+     * Acknowledges every throw whose quiet period has passed, twice over if its revision went stale.
+     */
+    public void settle(long now) {
+        long quiet = getQuietNanos();
+        for (int i = 0; i < size; ) {
+            int index = (head + i) % MAX_WINDOW;
+            long age = now - sentAt[index];
+            if (age > 2 * quiet || (age > quiet && sentRevisions[index] == revision)) onAck(i, now, false);
+            else i++;
+        }
+    }
+
+    /**
+     * Ticks to wait after a throw, clamped between the configured ceiling and {@value #MAX_DELAY_TICKS}.
+     */
+    public int getDelayTicks() {
+        long rtt = smoothedRtt < 0 ? INITIAL_RTT_NANOS : smoothedRtt;
+        int paced = (int) Math.ceil(Math.max(rtt / window / NANOS_PER_TICK, pacingTicks));
+        return Math.max(minDelayTicks, Math.min(paced, MAX_DELAY_TICKS));
+    }
+
+    /**
+     * How long a throw stays in flight without hearing from the server before it counts as acknowledged.
+     */
+    public long getQuietNanos() {
+        long rtt = smoothedRtt < 0 ? INITIAL_RTT_NANOS : smoothedRtt;
+        return Math.max(MIN_QUIET_NANOS, Math.min(MAX_QUIET_NANOS, rtt + 4 * rttVariance + NANOS_PER_TICK));
+    }
+
+    public void onSent(int slotId, int rawItemId, int count, int revision, long now) {
+        if (size == MAX_WINDOW) remove(0);
+        int i = (head + size) % MAX_WINDOW;
+        sentAt[i] = now;
+        sentSlots[i] = slotId;
+        sentItems[i] = rawItemId;
+        sentCounts[i] = count;
+        sentRevisions[i] = revision;
+        size++;
+    }
+
+    /**
+     * A round trip time reported by the server, such as the player list latency. Repeats of the last report
+     * are ignored, since the server only refreshes it every few seconds.
+     */
+    public void onPing(long rttNanos) {
+        if (rttNanos < 0 || rttNanos == lastPing) return;
+        lastPing = rttNanos;
+        sampleRtt(rttNanos);
+    }
+
+    /**
+     * The player handler moved to {@code revision} with a server update.
+     */
+    public void onRevision(int revision) {
+        this.revision = revision;
+    }
+
+    /**
+     * A server slot update for the player inventory, which the server only sends when its state differs from
+     * ours. An empty slot confirms a throw in flight, a non-empty one corrects it.
+     */
+    public void onSlotUpdate(int slotId, boolean empty, long now) {
+        int index = indexOf(slotId);
+        if (index < 0) return;
+        if (empty) {
+            onAck(index, now, true);
+            return;
+        }
+        remove(index);
+        corrections++;
+    }
+
+    /**
+     * The server resent the whole inventory at {@code revision}, which it does when a click was based on a
+     * stale revision or refused it; {@code view} shows the resent contents. Throws younger than a round trip
+     * cannot be answered by this resync yet and stay in flight. Of the rest, throws whose slot is empty are
+     * acknowledged and throws whose slot was refilled are corrected. A throw whose slot still holds the thrown
+     * stack is rejected if its revision was still current and corrected if it was stale.
+     */
+    public void onResync(int revision, SlotSelector.SlotView view, long now) {
+        int previous = this.revision;
+        this.revision = revision;
+        long minAge = smoothedRtt < 0 ? INITIAL_RTT_NANOS : smoothedRtt;
+        for (int i = 0; i < size; ) {
+            int index = (head + i) % MAX_WINDOW;
+            int item = view.rawItemId(sentSlots[index]);
+            if (now - sentAt[index] < minAge) {
+                i++;
+            } else if (item < 0) {
+                onAck(i, now, false);
+            } else if (item != sentItems[index] || view.count(sentSlots[index]) < sentCounts[index]) {
+                remove(i);
+                corrections++;
+            } else if (sentRevisions[index] == previous || now - sentAt[index] > getQuietNanos()) {
+                onRejected(now);
+                return;
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Handler slots with a throw in flight, as a bitmask indexed by slot id.
+     */
+    public long getInFlightMask() {
+        long mask = 0L;
+        for (int i = 0; i < size; i++) {
+            int slotId = sentSlots[(head + i) % MAX_WINDOW];
+            if (slotId >= 0 && slotId < 64) mask |= 1L << slotId;
+        }
+        return mask;
+    }
+
+    public int getOutstanding() {
+        return size;
+    }
+
+    public double getWindow() {
+        return window;
+    }
+
+    public long getSmoothedRttNanos() {
+        return smoothedRtt;
+    }
+
+    public long getAcks() {
+        return acks;
+    }
+
+    public long getRejections() {
+        return rejections;
+    }
+
+    public long getCorrections() {
+        return corrections;
+    }
+
+    public double getPacingTicks() {
+        return pacingTicks;
+    }
+
+    private void onAck(int index, long now, boolean sample) {
+        long rtt = now - sentAt[(head + index) % MAX_WINDOW];
+        remove(index);
+        acks++;
+        if (sample) sampleRtt(rtt);
+        if (ackListener != null) ackListener.accept(rtt);
+
+        if (window < threshold) window += 1;
+        else window += 1 / window;
+        window = Math.min(window, maxOutstanding);
+        pacingTicks *= PACING_DECAY;
+    }
+
+    private void sampleRtt(long rtt) {
+        if (smoothedRtt < 0) {
+            smoothedRtt = rtt;
+            rttVariance = rtt / 2;
+        } else {
+            rttVariance += (Math.abs(smoothedRtt - rtt) - rttVariance) / 4;
+            smoothedRtt += (rtt - smoothedRtt) / 8;
+        }
+    }
+
+    private void onRejected(long now) {
+        rejections++;
+        head = size = 0;
+        if (lastBackOff != Long.MIN_VALUE && now - lastBackOff < getQuietNanos()) return;
+        lastBackOff = now;
+        threshold = Math.max(1, window / 2);
+        window = threshold;
+        int current = getDelayTicks();
+        pacingTicks = Math.min(MAX_DELAY_TICKS, current * 1.5);
+    }
+
+    private int indexOf(int slotId) {
+        for (int i = 0; i < size; i++)
+            if (sentSlots[(head + i) % MAX_WINDOW] == slotId) return i;
+        return -1;
+    }
+
+    private void remove(int index) {
+        for (int i = index; i > 0; i--) {
+            int to = (head + i) % MAX_WINDOW;
+            int from = (head + i - 1) % MAX_WINDOW;
+            sentAt[to] = sentAt[from];
+            sentSlots[to] = sentSlots[from];
+            sentItems[to] = sentItems[from];
+            sentCounts[to] = sentCounts[from];
+            sentRevisions[to] = sentRevisions[from];
+        }
+        head = (head + 1) % MAX_WINDOW;
+        size--;
+    }
+}
@@ -0,0 +1,200 @@
+package me.cioco.inventorycleaner.core;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UTFDataFormatException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Compact binary profile format.
+ * <p>
+ * Layout, in order:
+ * <ul>
+ *     <li>header: magic, version, flags, delay, locked slot mask, mode</li>
+ *     <li>the item registry fingerprint and the raw id of every item at save time</li>
+ *     <li>string tables with the item ids, component rule lines, item tags and quotas</li>
+ *     <li>the adaptive throttle limits and the throws per tick</li>
+ *     <li>a string table with the container items</li>
+ * </ul>
+ * When the fingerprint still matches the running registry the raw ids can be used as-is,
+ * without parsing any identifiers.
+ */
+public final class BinaryProfileCodec {
+
+    public static final String EXTENSION = ".icp";
+
+    private static final int MAGIC = 0x49435046;
+    private static final short VERSION = 1;
+    private static final long MAP_THRESHOLD = 16 * 1024;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private static final int FLAG_TOGGLED = 1;
+    private static final int FLAG_AUTO_OPEN = 1 << 1;
+    private static final int FLAG_INVENTORY_OPEN_ONLY = 1 << 2;
+    private static final int FLAG_BINARY_PROFILES = 1 << 3;
+    private static final int FLAG_ADAPTIVE = 1 << 4;
+    private static final int FLAG_CONTAINER_CLEANING = 1 << 5;
+
+    private BinaryProfileCodec() {
+    }
+
+    public static void write(OutputStream output, ConfigSnapshot snapshot, int[] rawItemIds,
+                             long registryFingerprint) throws IOException {
+        if (rawItemIds.length != snapshot.itemIds().size())
+            throw new IllegalArgumentException("raw id count does not match item count");
+
+        DataOutputStream out = new DataOutputStream(output);
+        int flags = (snapshot.toggled() ? FLAG_TOGGLED : 0)
+                | (snapshot.autoOpen() ? FLAG_AUTO_OPEN : 0)
+                | (snapshot.inventoryOpenOnly() ? FLAG_INVENTORY_OPEN_ONLY : 0)
+                | (snapshot.binaryProfiles() ? FLAG_BINARY_PROFILES : 0)
+                | (snapshot.adaptiveThrottle() ? FLAG_ADAPTIVE : 0)
+                | (snapshot.containerCleaning() ? FLAG_CONTAINER_CLEANING : 0);
+
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeByte(flags);
+        out.writeInt(snapshot.throwDelayTicks());
+        out.writeLong(snapshot.lockedSlotMask());
+        writeString(out, snapshot.mode());
+
+        out.writeLong(registryFingerprint);
+        out.writeInt(rawItemIds.length);
+        for (int rawId : rawItemIds) out.writeInt(rawId);
+
+        for (String id : snapshot.itemIds()) writeString(out, id);
+
+        out.writeInt(snapshot.rules().size());
+        for (String rule : snapshot.rules()) writeString(out, rule);
+
+        out.writeInt(snapshot.itemTags().size());
+        for (String tag : snapshot.itemTags()) writeString(out, tag);
+
+        out.writeInt(snapshot.quotas().size());
+        for (String quota : snapshot.quotas()) writeString(out, quota);
+
+        out.writeInt(snapshot.minThrowDelayTicks());
+        out.writeInt(snapshot.maxOutstandingThrows());
+        out.writeInt(snapshot.throwsPerTick());
+
+        out.writeInt(snapshot.containerItems().size());
+        for (String item : snapshot.containerItems()) writeString(out, item);
+        out.flush();
+    }
+
+    public static Profile read(Path path, String name) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer buffer;
+            if (size >= MAP_THRESHOLD) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) break;
+                }
+                buffer.flip();
+            }
+            return read(buffer, name);
+        }
+    }
+
+    public static Profile read(ByteBuffer buffer, String name) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) throw new IOException("Not an InventoryCleaner profile");
+            short version = buffer.getShort();
+            if (version != VERSION) throw new IOException("Unsupported profile version " + version);
+
+            int flags = buffer.get();
+            int delay = buffer.getInt();
+            long lockedSlotMask = buffer.getLong();
+            String mode = readString(buffer);
+
+            long fingerprint = buffer.getLong();
+            int count = buffer.getInt();
+            if (count < 0 || count > buffer.remaining() / 4) throw new IOException("Corrupt item count " + count);
+
+            int[] rawIds = new int[count];
+            for (int i = 0; i < count; i++) rawIds[i] = buffer.getInt();
+
+            List<String> itemIds = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) itemIds.add(readString(buffer));
+
+            List<String> rules = readStrings(buffer, "rule");
+            List<String> itemTags = readStrings(buffer, "tag");
+            List<String> quotas = readStrings(buffer, "quota");
+
+            int minDelay = buffer.getInt();
+            int maxOutstanding = buffer.getInt();
+            int throwsPerTick = buffer.getInt();
+
+            List<String> containerItems = readStrings(buffer, "container item");
+
+            ConfigSnapshot snapshot = new ConfigSnapshot(name, (flags & FLAG_TOGGLED) != 0,
+                    (flags & FLAG_AUTO_OPEN) != 0, (flags & FLAG_INVENTORY_OPEN_ONLY) != 0,
+                    (flags & FLAG_BINARY_PROFILES) != 0, delay, mode, itemIds, lockedSlotMask, rules, itemTags, quotas,
+                    (flags & FLAG_ADAPTIVE) != 0, Math.max(1, minDelay), Math.max(1, maxOutstanding),
+                    Math.max(1, throwsPerTick), (flags & FLAG_CONTAINER_CLEANING) != 0, containerItems);
+            return new Profile(snapshot, rawIds, fingerprint);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Truncated InventoryCleaner profile", e);
+        }
+    }
+
+    /**
+     * Raw ids for the running registry: the saved {@code rawItemIds} while {@code fingerprint} still matches
+     * {@code savedFingerprint}, otherwise every item id looked up by name through {@code rawIdOf}. Items that
+     * no longer exist are dropped.
+     */
+    public static int[] resolveRawIds(int[] rawItemIds, long savedFingerprint, List<String> itemIds,
+                                      long fingerprint, ToIntFunction<String> rawIdOf) {
+        if (rawItemIds != null && savedFingerprint == fingerprint) return rawItemIds;
+        int[] resolved = new int[itemIds.size()];
+        int count = 0;
+        for (String id : itemIds) {
+            int rawId = rawIdOf.applyAsInt(id);
+            if (rawId >= 0) resolved[count++] = rawId;
+        }
+        return count == resolved.length ? resolved : Arrays.copyOf(resolved, count);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES)
+            throw new UTFDataFormatException("String of " + bytes.length + " bytes is too long for a profile");
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static List<String> readStrings(ByteBuffer buffer, String what) throws IOException {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / 2) throw new IOException("Corrupt " + what + " count " + count);
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) values.add(readString(buffer));
+        return values;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decoded profile. {@code rawItemIds} line up with {@code snapshot.itemIds()} and are only valid
+     * while the running item registry still has {@code registryFingerprint}.
+     */
+    public record Profile(ConfigSnapshot snapshot, int[] rawItemIds, long registryFingerprint) {
+    }
+}
@@ -0,0 +1,94 @@
+package me.cioco.inventorycleaner.core;
+
+/**
+ * Per-tick executor of the cleaner: waits out the throw delay, re-plans the {@link ThrowQueue} when slots are
+ * dirty and drains up to {@code budget} queued throws into a caller-supplied buffer. The delay between bursts
+ * is either fixed or taken from an {@link AdaptiveThrowLimiter}.
+ */
+public class CleanerLoop {
+
+    public static final int NOTHING_TO_THROW = -1;
+    public static final int COOLING_DOWN = -2;
+    public static final int THROTTLED = -3;
+
+    private final DirtySlotTracker tracker;
+    private final ThrowQueue queue;
+    private int cooldown = 0;
+
+    public CleanerLoop(DirtySlotTracker tracker) {
+        this.tracker = tracker;
+        this.queue = new ThrowQueue(tracker);
+    }
+
+    public DirtySlotTracker getTracker() {
+        return tracker;
+    }
+
+    public ThrowQueue getQueue() {
+        return queue;
+    }
+
+    public boolean isCoolingDown() {
+        return cooldown > 0;
+    }
+
+    public boolean isIdle() {
+        return tracker.isIdle() && queue.isEmpty();
+    }
+
+    /**
+     * Writes up to {@code budget} slots to throw into {@code out} and returns how many, or one of the
+     * negative status codes when nothing should be thrown this tick.
+     */
+    public int tick(RuleTable rules, int throwDelayTicks, int budget, SlotSelector.SlotView view, int[] out) {
+        if (cooldown > 0) {
+            cooldown--;
+            return COOLING_DOWN;
+        }
+        if (isIdle()) return NOTHING_TO_THROW;
+        queue.plan(rules, view, 0L);
+
+        int count = 0;
+        int limit = Math.min(budget, out.length);
+        while (count < limit) {
+            int slotId = queue.poll(view);
+            if (slotId < 0) break;
+            tracker.markSlot(slotId);
+            out[count++] = slotId;
+        }
+        if (count == 0) return NOTHING_TO_THROW;
+
+        cooldown = throwDelayTicks - 1;
+        return count;
+    }
+
+    /**
+     * Like the fixed delay variant, but paced by {@code limiter}. Every throw is recorded with {@code revision},
+     * the revision of the handler its click is based on.
+     */
+    public int tick(RuleTable rules, int budget, SlotSelector.SlotView view, AdaptiveThrowLimiter limiter,
+                    int revision, long now, int[] out) {
+        limiter.settle(now);
+        if (cooldown > 0) {
+            cooldown--;
+            return COOLING_DOWN;
+        }
+        if (isIdle()) return NOTHING_TO_THROW;
+        if (!limiter.canSend(now)) return THROTTLED;
+        queue.plan(rules, view, limiter.getInFlightMask());
+
+        int count = 0;
+        int limit = Math.min(budget, out.length);
+        while (count < limit && limiter.canSend(now)) {
+            int slotId = queue.poll(view);
+            if (slotId < 0) break;
+            tracker.markSlot(slotId);
+            limiter.onSent(slotId, view.rawItemId(slotId), view.count(slotId), revision, now);
+            out[count++] = slotId;
+        }
+        if (count == 0) return NOTHING_TO_THROW;
+
+        cooldown = limiter.getDelayTicks() - 1;
+        return count;
+    }
+}
@@ -0,0 +1,119 @@
+package me.cioco.inventorycleaner.core;
+
+import java.util.Arrays;
+
+/**
+ * Live cleaner statistics for the HUD. Histograms cover the current and the previous window of
+ * {@link #WINDOW_TICKS} ticks, and every recording method is allocation-free so it can run on the tick path.
+ * Times are in nanoseconds from {@link System#nanoTime()}.
+ */
+public class CleanerTelemetry {
+
+    public static final int WINDOW_TICKS = 200;
+
+    private final int firstSlot;
+    private final long[] filledAt;
+
+    private final LatencyHistogram scanNanos = new LatencyHistogram();
+    private final LatencyHistogram pickupToThrowNanos = new LatencyHistogram();
+    private final LatencyHistogram ackNanos = new LatencyHistogram();
+    private final LatencyHistogram previousScanNanos = new LatencyHistogram();
+    private final LatencyHistogram previousPickupToThrowNanos = new LatencyHistogram();
+    private final LatencyHistogram previousAckNanos = new LatencyHistogram();
+
+    private int windowTicks = 0;
+    private int windowIdleTicks = 0;
+    private int windowThrows = 0;
+    private int previousTicks = 0;
+    private int previousIdleTicks = 0;
+    private int previousThrows = 0;
+    private long lastAckNanos = -1;
+
+    public CleanerTelemetry(int firstSlot, int slotCount) {
+        this.firstSlot = firstSlot;
+        this.filledAt = new long[slotCount];
+        Arrays.fill(filledAt, -1);
+    }
+
+    public void onTick(boolean idle) {
+        windowTicks++;
+        if (idle) windowIdleTicks++;
+        if (windowTicks < WINDOW_TICKS) return;
+
+        previousScanNanos.copyFrom(scanNanos);
+        previousPickupToThrowNanos.copyFrom(pickupToThrowNanos);
+        previousAckNanos.copyFrom(ackNanos);
+        scanNanos.reset();
+        pickupToThrowNanos.reset();
+        ackNanos.reset();
+        previousTicks = windowTicks;
+        previousIdleTicks = windowIdleTicks;
+        previousThrows = windowThrows;
+        windowTicks = windowIdleTicks = windowThrows = 0;
+    }
+
+    public void recordScan(long nanos) {
+        scanNanos.record(nanos);
+    }
+
+    /**
+     * A server slot update for the player inventory; the first non-empty update starts the pickup clock.
+     */
+    public void onSlotUpdate(int slotId, boolean empty, long now) {
+        int i = slotId - firstSlot;
+        if (i < 0 || i >= filledAt.length) return;
+        if (empty) filledAt[i] = -1;
+        else if (filledAt[i] < 0) filledAt[i] = now;
+    }
+
+    public void onThrow(int slotId, long now) {
+        windowThrows++;
+        int i = slotId - firstSlot;
+        if (i >= 0 && i < filledAt.length && filledAt[i] >= 0) {
+            pickupToThrowNanos.record(now - filledAt[i]);
+            filledAt[i] = -1;
+        }
+    }
+
+    /**
+     * A throw was acknowledged by the throw limiter {@code nanos} after it was sent.
+     */
+    public void onThrowAck(long nanos) {
+        lastAckNanos = nanos;
+        ackNanos.record(nanos);
+    }
+
+    public long getLastAckNanos() {
+        return lastAckNanos;
+    }
+
+    public double getThrowsPerSecond() {
+        int ticks = windowTicks + previousTicks;
+        return ticks == 0 ? 0 : (windowThrows + previousThrows) * 20.0 / ticks;
+    }
+
+    public double getIdleTickRatio() {
+        int ticks = windowTicks + previousTicks;
+        return ticks == 0 ? 0 : (double) (windowIdleTicks + previousIdleTicks) / ticks;
+    }
+
+    /**
+     * Copies the scan time distribution of the last one to two windows into {@code into}.
+     */
+    public void scanNanos(LatencyHistogram into) {
+        merge(into, scanNanos, previousScanNanos);
+    }
+
+    public void pickupToThrowNanos(LatencyHistogram into) {
+        merge(into, pickupToThrowNanos, previousPickupToThrowNanos);
+    }
+
+    public void ackNanos(LatencyHistogram into) {
+        merge(into, ackNanos, previousAckNanos);
+    }
+
+    private static void merge(LatencyHistogram into, LatencyHistogram current, LatencyHistogram previous) {
+        into.copyFrom(current);
+        into.add(previous);
+    }
+}
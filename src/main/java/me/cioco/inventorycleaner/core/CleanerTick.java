@@ -0,0 +1,81 @@
+package me.cioco.inventorycleaner.core;
+
+import me.cioco.inventorycleaner.core.jfr.SlotScanEvent;
+
+/**
+ * The Minecraft-free part of one player inventory tick: the cleaner loop with its telemetry and scan events, and
+ * the follow-up plan after a batch of throws. Sending the clicks is left to the caller.
+ */
+public final class CleanerTick {
+
+    private final DirtySlotTracker tracker;
+    private final CleanerLoop loop;
+    private final CleanerTelemetry telemetry;
+    private final AdaptiveThrowLimiter limiter;
+
+    public CleanerTick(DirtySlotTracker tracker, CleanerLoop loop, CleanerTelemetry telemetry,
+                       AdaptiveThrowLimiter limiter) {
+        this.tracker = tracker;
+        this.loop = loop;
+        this.telemetry = telemetry;
+        this.limiter = limiter;
+    }
+
+    /**
+     * Runs the cleaner loop, paced by the limiter when {@code adaptive} and by {@code throwDelayTicks} otherwise.
+     * Returns the number of slots written to {@code out} or one of the negative {@link CleanerLoop} results.
+     *
+     * @param revision revision of the handler the clicks will be based on; only used when {@code adaptive}
+     */
+    public int run(RuleTable rules, SlotSelector.SlotView view, boolean adaptive, int throwDelayTicks, int budget,
+                   int revision, long now, int[] out) {
+        int dirtySlots = Long.bitCount(tracker.getDirtyMask());
+        SlotScanEvent scan = beginScan(dirtySlots);
+        boolean idle = loop.isIdle() && !loop.isCoolingDown();
+        long scanStart = System.nanoTime();
+        int count = adaptive
+                ? loop.tick(rules, budget, view, limiter, revision, now, out)
+                : loop.tick(rules, throwDelayTicks, budget, view, out);
+        long scanEnd = System.nanoTime();
+        telemetry.onTick(idle);
+        if (count == CleanerLoop.COOLING_DOWN || count == CleanerLoop.THROTTLED) return count;
+        if (dirtySlots > 0) telemetry.recordScan(scanEnd - scanStart);
+        commitScan(scan, "tick", dirtySlots, count > 0 ? out[0] : -1);
+        return count;
+    }
+
+    /**
+     * Plans the slots left after a batch of throws and returns whether any are queued.
+     */
+    public boolean planFollowUp(RuleTable rules, SlotSelector.SlotView view, boolean adaptive) {
+        int dirtySlots = Long.bitCount(tracker.getDirtyMask());
+        SlotScanEvent scan = beginScan(dirtySlots);
+        ThrowQueue queue = loop.getQueue();
+        queue.plan(rules, view, adaptive ? limiter.getInFlightMask() : 0L);
+        long queued = queue.getQueuedMask();
+        commitScan(scan, "followUp", dirtySlots, queued == 0 ? -1 : Long.numberOfTrailingZeros(queued));
+        return queued != 0;
+    }
+
+    /**
+     * Scan events are only created when a recording wants them and there is something to scan, so the tick
+     * allocates nothing even where escape analysis gives up on the event.
+     */
+    private static SlotScanEvent beginScan(int dirtySlots) {
+        if (dirtySlots == 0 || !SlotScanEvent.isRecording()) return null;
+        SlotScanEvent event = new SlotScanEvent();
+        event.begin();
+        return event;
+    }
+
+    private void commitScan(SlotScanEvent event, String source, int dirtySlots, int selectedSlot) {
+        if (event == null) return;
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.source = source;
+        event.dirtySlots = dirtySlots;
+        event.remainingDirtySlots = Long.bitCount(tracker.getDirtyMask());
+        event.selectedSlot = selectedSlot;
+        event.commit();
+    }
+}
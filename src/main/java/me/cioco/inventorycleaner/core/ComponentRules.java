@@ -0,0 +1,197 @@
+package me.cioco.inventorycleaner.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Compiled form of a list of {@link ItemRule}s.
+ * <p>
+ * Rules are indexed by raw item id (tag targets are expanded to their members at compile time), so an
+ * item without rules is rejected by a single array lookup
+ * before any component is read. Within a rule, conditions are ordered by {@link ItemRule.Kind} cost
+ * and evaluation stops at the first failing one.
+ */
+public final class ComponentRules {
+
+    public static final int NO_MATCH = -1;
+    public static final int KEEP = 0;
+    public static final int THROW = 1;
+
+    private static final int[] NO_IDS = new int[0];
+
+    public static final ComponentRules NONE = new ComponentRules(new int[0][], new int[0], new boolean[0],
+            new ItemRule.Kind[0][], new ItemRule.Op[0][], new boolean[0][], new int[0][]);
+
+    private final int[][] rulesByItem;
+    private final int[] wildcardRules;
+    private final boolean[] throwItem;
+    private final ItemRule.Kind[][] kinds;
+    private final ItemRule.Op[][] ops;
+    private final boolean[][] negated;
+    private final int[][] operands;
+
+    private ComponentRules(int[][] rulesByItem, int[] wildcardRules, boolean[] throwItem, ItemRule.Kind[][] kinds,
+                           ItemRule.Op[][] ops, boolean[][] negated, int[][] operands) {
+        this.rulesByItem = rulesByItem;
+        this.wildcardRules = wildcardRules;
+        this.throwItem = throwItem;
+        this.kinds = kinds;
+        this.ops = ops;
+        this.negated = negated;
+        this.operands = operands;
+    }
+
+    public static ComponentRules compile(List<ItemRule> rules, ToIntFunction<String> itemRawIds,
+                                         ToIntFunction<String> potionRawIds) {
+        return compile(rules, itemRawIds, tag -> NO_IDS, potionRawIds);
+    }
+
+    /**
+     * Rules whose item or potion id does not resolve to a raw id ({@code -1}) are dropped, as are rules
+     * whose tag has no members. {@code tagRawIds} receives tag ids without the leading {@code #}.
+     */
+    public static ComponentRules compile(List<ItemRule> rules, ToIntFunction<String> itemRawIds,
+                                         Function<String, int[]> tagRawIds, ToIntFunction<String> potionRawIds) {
+        List<ItemRule> kept = new ArrayList<>(rules.size());
+        List<int[]> targets = new ArrayList<>(rules.size());
+        int maxId = -1;
+        for (ItemRule rule : rules) {
+            int[] target;
+            if (rule.isWildcard()) target = null;
+            else if (rule.isTag()) target = tagRawIds.apply(rule.target().substring(ItemRule.TAG_PREFIX.length()));
+            else target = new int[]{itemRawIds.applyAsInt(rule.target())};
+
+            if (target != null && (target.length == 0 || target[0] < 0)) continue;
+            if (!potionsResolve(rule, potionRawIds)) continue;
+            kept.add(rule);
+            targets.add(target);
+            if (target != null) for (int id : target) maxId = Math.max(maxId, id);
+        }
+        if (kept.isEmpty()) return NONE;
+
+        int n = kept.size();
+        boolean[] throwItem = new boolean[n];
+        ItemRule.Kind[][] kinds = new ItemRule.Kind[n][];
+        ItemRule.Op[][] ops = new ItemRule.Op[n][];
+        boolean[][] negated = new boolean[n][];
+        int[][] operands = new int[n][];
+
+        for (int r = 0; r < n; r++) {
+            ItemRule rule = kept.get(r);
+            List<ItemRule.Condition> conditions = new ArrayList<>(rule.conditions());
+            conditions.sort(Comparator.comparing(ItemRule.Condition::kind));
+
+            int c = conditions.size();
+            throwItem[r] = rule.throwItem();
+            kinds[r] = new ItemRule.Kind[c];
+            ops[r] = new ItemRule.Op[c];
+            negated[r] = new boolean[c];
+            operands[r] = new int[c];
+            for (int i = 0; i < c; i++) {
+                ItemRule.Condition condition = conditions.get(i);
+                kinds[r][i] = condition.kind();
+                ops[r][i] = condition.op();
+                negated[r][i] = condition.negated();
+                operands[r][i] = switch (condition.kind()) {
+                    case POTION -> potionRawIds.applyAsInt(condition.operand());
+                    case COUNT, DAMAGE, DURABILITY -> Integer.parseInt(condition.operand());
+                    default -> 0;
+                };
+            }
+        }
+
+        int wildcardCount = 0;
+        for (int[] target : targets) if (target == null) wildcardCount++;
+        int[] wildcard = new int[wildcardCount];
+        int[] perItem = new int[maxId + 1];
+        for (int r = 0, w = 0; r < n; r++) {
+            int[] target = targets.get(r);
+            if (target == null) wildcard[w++] = r;
+            else for (int id : target) if (id >= 0) perItem[id]++;
+        }
+
+        int[][] byItem = new int[maxId + 1][];
+        int[] filled = new int[maxId + 1];
+        for (int r = 0; r < n; r++) {
+            int[] target = targets.get(r);
+            if (target == null) {
+                for (int id = 0; id <= maxId; id++)
+                    if (perItem[id] > 0) listFor(byItem, perItem, wildcardCount, id)[filled[id]++] = r;
+                continue;
+            }
+            for (int id : target) {
+                if (id < 0) continue;
+                int[] list = listFor(byItem, perItem, wildcardCount, id);
+                if (filled[id] == 0 || list[filled[id] - 1] != r) list[filled[id]++] = r;
+            }
+        }
+        for (int id = 0; id <= maxId; id++)
+            if (byItem[id] != null && filled[id] < byItem[id].length) byItem[id] = Arrays.copyOf(byItem[id], filled[id]);
+
+        return new ComponentRules(byItem, wildcard, throwItem, kinds, ops, negated, operands);
+    }
+
+    private static int[] listFor(int[][] byItem, int[] perItem, int wildcardCount, int id) {
+        if (byItem[id] == null) byItem[id] = new int[perItem[id] + wildcardCount];
+        return byItem[id];
+    }
+
+    private static boolean potionsResolve(ItemRule rule, ToIntFunction<String> potionRawIds) {
+        for (ItemRule.Condition condition : rule.conditions())
+            if (condition.kind() == ItemRule.Kind.POTION && potionRawIds.applyAsInt(condition.operand()) < 0)
+                return false;
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return throwItem.length == 0;
+    }
+
+    public int getRuleCount() {
+        return throwItem.length;
+    }
+
+    public boolean hasRulesFor(int rawItemId) {
+        return wildcardRules.length > 0
+                || (rawItemId >= 0 && rawItemId < rulesByItem.length && rulesByItem[rawItemId] != null);
+    }
+
+    /**
+     * Returns {@link #THROW} or {@link #KEEP} for the first matching rule, or {@link #NO_MATCH}.
+     */
+    public int decide(int rawItemId, SlotSelector.SlotView view, int slotId) {
+        int[] candidates = rawItemId >= 0 && rawItemId < rulesByItem.length ? rulesByItem[rawItemId] : null;
+        if (candidates == null) candidates = wildcardRules;
+
+        for (int r : candidates)
+            if (matches(r, view, slotId)) return throwItem[r] ? THROW : KEEP;
+        return NO_MATCH;
+    }
+
+    private boolean matches(int rule, SlotSelector.SlotView view, int slotId) {
+        ItemRule.Kind[] ruleKinds = kinds[rule];
+        for (int i = 0; i < ruleKinds.length; i++) {
+            boolean result = switch (ruleKinds[i]) {
+                case COUNT -> ops[rule][i].test(view.count(slotId), operands[rule][i]);
+                case DAMAGED -> view.maxDamage(slotId) > 0 && view.damage(slotId) > 0;
+                case DAMAGE -> {
+                    int max = view.maxDamage(slotId);
+                    yield max > 0 && ops[rule][i].test(view.damage(slotId) * 100 / max, operands[rule][i]);
+                }
+                case DURABILITY -> {
+                    int max = view.maxDamage(slotId);
+                    yield max > 0 && ops[rule][i].test(max - view.damage(slotId), operands[rule][i]);
+                }
+                case NAMED -> view.hasCustomName(slotId);
+                case ENCHANTED -> view.isEnchanted(slotId);
+                case POTION -> view.potionId(slotId) == operands[rule][i];
+            };
+            if (result == negated[rule][i]) return false;
+        }
+        return true;
+    }
+}
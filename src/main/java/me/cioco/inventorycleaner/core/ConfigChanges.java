@@ -0,0 +1,51 @@
+package me.cioco.inventorycleaner.core;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+
+/**
+ * Tells views which parts of the configuration changed, as a mask of the flags below. Changes made inside a
+ * batch are merged and delivered once when the outermost batch ends.
+ */
+public class ConfigChanges {
+
+    public static final int ITEMS = 1;
+    public static final int LOCKS = 1 << 1;
+    public static final int SETTINGS = 1 << 2;
+    public static final int PROFILES = 1 << 3;
+    public static final int BINDINGS = 1 << 4;
+    public static final int ACTIVE_PROFILE = 1 << 5;
+    public static final int ALL = (1 << 6) - 1;
+
+    private final List<IntConsumer> listeners = new CopyOnWriteArrayList<>();
+    private int depth = 0;
+    private int pending = 0;
+
+    public void addListener(IntConsumer listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(IntConsumer listener) {
+        listeners.remove(listener);
+    }
+
+    public void begin() {
+        depth++;
+    }
+
+    public void end() {
+        if (--depth > 0 || pending == 0) return;
+        int changes = pending;
+        pending = 0;
+        fire(changes);
+    }
+
+    public void fire(int changes) {
+        if (depth > 0) {
+            pending |= changes;
+            return;
+        }
+        for (IntConsumer listener : listeners) listener.accept(changes);
+    }
+}
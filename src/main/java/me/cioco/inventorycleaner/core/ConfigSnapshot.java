@@ -0,0 +1,141 @@
+package me.cioco.inventorycleaner.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable copy of everything that gets persisted for one profile, safe to hand to another thread.
+ */
+public record ConfigSnapshot(String name, boolean toggled, boolean autoOpen, boolean inventoryOpenOnly,
+                             boolean binaryProfiles, int throwDelayTicks, String mode, List<String> itemIds, long lockedSlotMask,
+                             List<String> rules, List<String> itemTags, List<String> quotas,
+                             boolean adaptiveThrottle, int minThrowDelayTicks, int maxOutstandingThrows,
+                             int throwsPerTick, boolean containerCleaning, List<String> containerItems) {
+
+    private static final String TAG_KEY_PREFIX = "tag.";
+    private static final Set<String> RESERVED_KEYS =
+            Set.of("toggled", "delay", "mode", "autoopen", "inventoryOpenOnly", "binaryProfiles",
+                    "adaptive", "minDelay", "maxOutstanding", "throwsPerTick", "containerCleaning");
+
+    public ConfigSnapshot {
+        itemIds = List.copyOf(itemIds);
+        rules = List.copyOf(rules);
+        itemTags = List.copyOf(itemTags);
+        quotas = List.copyOf(quotas);
+        containerItems = List.copyOf(containerItems);
+    }
+
+    public int getSlotCount() {
+        return Long.bitCount(lockedSlotMask);
+    }
+
+    public static ConfigSnapshot fromProperties(String name, Properties properties) {
+        boolean toggled = Boolean.parseBoolean(properties.getProperty("toggled", "false"));
+        boolean autoOpen = Boolean.parseBoolean(properties.getProperty("autoopen", "false"));
+        boolean inventoryOpenOnly = Boolean.parseBoolean(properties.getProperty("inventoryOpenOnly", "false"));
+        boolean binaryProfiles = Boolean.parseBoolean(properties.getProperty("binaryProfiles", "false"));
+        String mode = properties.getProperty("mode", "BLACKLIST").toUpperCase();
+
+        boolean adaptive = Boolean.parseBoolean(properties.getProperty("adaptive", "false"));
+        boolean containerCleaning = Boolean.parseBoolean(properties.getProperty("containerCleaning", "false"));
+
+        int delay = parseInt(properties, "delay", 20);
+        int minDelay = parseInt(properties, "minDelay", 1);
+        int maxOutstanding = parseInt(properties, "maxOutstanding", 4);
+        int throwsPerTick = parseInt(properties, "throwsPerTick", 1);
+
+        List<String> itemIds = new ArrayList<>();
+        TreeMap<Integer, String> rules = new TreeMap<>();
+        List<String> itemTags = new ArrayList<>();
+        List<String> quotas = new ArrayList<>();
+        List<String> containerItems = new ArrayList<>();
+        long lockedSlotMask = 0L;
+        for (String key : properties.stringPropertyNames()) {
+            if (RESERVED_KEYS.contains(key)) continue;
+
+            if (key.startsWith("lock_")) {
+                try {
+                    int slot = Integer.parseInt(key.substring(5));
+                    if (slot >= 0 && slot < 64) lockedSlotMask |= 1L << slot;
+                } catch (NumberFormatException ignored) {
+                }
+            } else if (key.startsWith("container.")) {
+                if (key.length() > 10) containerItems.add(key.substring(10));
+            } else if (key.startsWith("quota.")) {
+                quotas.add(key.substring(6) + "=" + properties.getProperty(key));
+            } else if (key.startsWith(TAG_KEY_PREFIX)) {
+                if (key.length() > TAG_KEY_PREFIX.length()) itemTags.add(key.substring(TAG_KEY_PREFIX.length()));
+            } else if (key.startsWith("#")) {
+                if (key.length() > 1) itemTags.add(key.substring(1));
+            } else if (key.startsWith("rule_")) {
+                try {
+                    rules.put(Integer.parseInt(key.substring(5)), properties.getProperty(key));
+                } catch (NumberFormatException ignored) {
+                }
+            } else {
+                itemIds.add(key);
+            }
+        }
+
+        return new ConfigSnapshot(name, toggled, autoOpen, inventoryOpenOnly, binaryProfiles,
+                Math.max(1, delay), mode, itemIds, lockedSlotMask, new ArrayList<>(rules.values()), itemTags, quotas,
+                adaptive, Math.max(1, minDelay), Math.max(1, maxOutstanding), Math.max(1, throwsPerTick),
+                containerCleaning, containerItems);
+    }
+
+    private static int parseInt(Properties properties, String key, int fallback) {
+        String value = properties.getProperty(key);
+        if (value == null) return fallback;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("toggled", Boolean.toString(toggled));
+        properties.setProperty("autoopen", String.valueOf(autoOpen));
+        properties.setProperty("inventoryOpenOnly", String.valueOf(inventoryOpenOnly));
+        properties.setProperty("binaryProfiles", String.valueOf(binaryProfiles));
+        properties.setProperty("delay", String.valueOf(throwDelayTicks));
+        properties.setProperty("mode", mode);
+        properties.setProperty("adaptive", String.valueOf(adaptiveThrottle));
+        properties.setProperty("minDelay", String.valueOf(minThrowDelayTicks));
+        properties.setProperty("maxOutstanding", String.valueOf(maxOutstandingThrows));
+        properties.setProperty("throwsPerTick", String.valueOf(throwsPerTick));
+        properties.setProperty("containerCleaning", String.valueOf(containerCleaning));
+
+        for (String id : itemIds)
+            properties.setProperty(id, "true");
+
+        for (String tag : itemTags)
+            properties.setProperty(TAG_KEY_PREFIX + tag, "true");
+
+        for (String quota : quotas) {
+            int eq = quota.lastIndexOf('=');
+            properties.setProperty("quota." + quota.substring(0, eq), quota.substring(eq + 1));
+        }
+
+        for (String item : containerItems)
+            properties.setProperty("container." + item, "true");
+
+        for (long slots = lockedSlotMask; slots != 0; slots &= slots - 1)
+            properties.setProperty("lock_" + Long.numberOfTrailingZeros(slots), "true");
+
+        for (int i = 0; i < rules.size(); i++)
+            properties.setProperty("rule_" + i, rules.get(i));
+
+        return properties;
+    }
+
+    public void writeProperties(OutputStream output) throws IOException {
+        toProperties().store(output, "InventoryCleaner configuration: " + name);
+    }
+}
@@ -0,0 +1,136 @@
+package me.cioco.inventorycleaner.core;
+
+import me.cioco.inventorycleaner.core.jfr.ConfigWriteEvent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes config files on a background thread. Payloads submitted for the same file within the
+ * debounce window are coalesced into a single write, and every write goes through a temp file and rename.
+ */
+public class ConfigWriter implements AutoCloseable {
+
+    private final long debounceMillis;
+    private final ScheduledExecutorService executor;
+    private final Object writeLock = new Object();
+    private final Map<Path, Payload> pending = new LinkedHashMap<>();
+    private final Map<Path, FileTime> lastWritten = new ConcurrentHashMap<>();
+    private boolean flushScheduled = false;
+
+    public ConfigWriter(long debounceMillis) {
+        this.debounceMillis = debounceMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "InventoryCleaner Config Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void submit(Path target, Payload payload) {
+        synchronized (pending) {
+            pending.put(target, payload);
+            if (flushScheduled) return;
+            flushScheduled = true;
+        }
+        try {
+            executor.schedule(this::flush, debounceMillis, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            flush();
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    public boolean isOwnWrite(Path target) {
+        synchronized (pending) {
+            if (pending.containsKey(target)) return true;
+        }
+        FileTime written = lastWritten.get(target);
+        if (written == null) return false;
+        try {
+            return written.equals(Files.getLastModifiedTime(target));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public void flush() {
+        synchronized (writeLock) {
+            Map<Path, Payload> batch;
+            synchronized (pending) {
+                flushScheduled = false;
+                if (pending.isEmpty()) return;
+                batch = new LinkedHashMap<>(pending);
+            }
+
+            for (Map.Entry<Path, Payload> entry : batch.entrySet()) {
+                Path target = entry.getKey();
+                ConfigWriteEvent event = new ConfigWriteEvent();
+                event.begin();
+                try {
+                    long bytes = writeAtomically(target, entry.getValue());
+                    lastWritten.put(target, Files.getLastModifiedTime(target));
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.path = target.toString();
+                        event.bytes = bytes;
+                        event.batchSize = batch.size();
+                        event.commit();
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                synchronized (pending) {
+                    pending.remove(target, entry.getValue());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        flush();
+    }
+
+    private static long writeAtomically(Path target, Payload payload) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                payload.writeTo(output);
+            }
+            long bytes = Files.size(temp);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return bytes;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Payload {
+        void writeTo(OutputStream output) throws IOException;
+    }
+}
@@ -0,0 +1,101 @@
+package me.cioco.inventorycleaner.core;
+
+import java.util.Arrays;
+
+/**
+ * Resumable scan over the slots of an open container, for handlers far larger than the 64 slots a
+ * {@link DirtySlotTracker} covers.
+ * <p>
+ * Pending slots are kept in a bitset. Every tick may evaluate at most {@code slotBudget} of them, continuing
+ * from where the previous tick stopped, so a container of any size costs a bounded amount per tick and is
+ * covered over several ticks. Keepers are cleared. A throwable slot stays pending and is checked again on the
+ * next pass, so a throw the server refused is retried without holding up the rest of the container.
+ */
+public class ContainerScanner {
+
+    private final int slotBudget;
+    private long[] pending = new long[0];
+    private int slotCount = 0;
+    private int pendingCount = 0;
+    private int cursor = 0;
+    private int remainingBudget = 0;
+
+    public ContainerScanner(int slotBudget) {
+        this.slotBudget = Math.max(1, slotBudget);
+    }
+
+    public void reset(int slotCount) {
+        this.slotCount = Math.max(0, slotCount);
+        pending = new long[(this.slotCount + 63) >>> 6];
+        cursor = 0;
+        markAll();
+    }
+
+    public void markAll() {
+        Arrays.fill(pending, -1L);
+        int tail = slotCount & 63;
+        if (tail != 0) pending[pending.length - 1] = (1L << tail) - 1;
+        pendingCount = slotCount;
+    }
+
+    public void markSlot(int slotId) {
+        if (slotId < 0 || slotId >= slotCount) return;
+        long bit = 1L << slotId;
+        if ((pending[slotId >>> 6] & bit) != 0) return;
+        pending[slotId >>> 6] |= bit;
+        pendingCount++;
+    }
+
+    public boolean isIdle() {
+        return pendingCount == 0;
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Restores the full slot budget; called once per tick before {@link #next}.
+     */
+    public void beginTick() {
+        remainingBudget = slotBudget;
+    }
+
+    /**
+     * Evaluates pending slots from the cursor until one should be thrown or this tick's budget is spent.
+     * Returns the slot to throw, or -1.
+     */
+    public int next(RuleTable rules, SlotSelector.SlotView view) {
+        while (pendingCount > 0 && remainingBudget > 0) {
+            int slotId = nextPending(cursor);
+            if (slotId < 0) {
+                cursor = 0;
+                continue;
+            }
+            cursor = slotId + 1;
+            remainingBudget--;
+
+            int rawId = view.rawItemId(slotId);
+            if (rawId >= 0 && rules.containsItem(rawId) != rules.isWhitelist()) return slotId;
+
+            pending[slotId >>> 6] &= ~(1L << slotId);
+            pendingCount--;
+        }
+        return -1;
+    }
+
+    private int nextPending(int from) {
+        if (from >= slotCount) return -1;
+        int word = from >>> 6;
+        long bits = pending[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) return (word << 6) + Long.numberOfTrailingZeros(bits);
+            if (++word == pending.length) return -1;
+            bits = pending[word];
+        }
+    }
+}
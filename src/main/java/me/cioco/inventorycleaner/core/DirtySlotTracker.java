@@ -0,0 +1,52 @@
+package me.cioco.inventorycleaner.core;
+
+/**
+ * Tracks which slots of a handler changed since they were last evaluated.
+ * Bits map to slot ids starting at {@code firstSlot}; an all-zero mask means there is nothing to re-check.
+ */
+public class DirtySlotTracker {
+
+    private final int firstSlot;
+    private final int slotCount;
+    private final long allMask;
+    private long dirty;
+
+    public DirtySlotTracker(int firstSlot, int slotCount) {
+        if (slotCount < 1 || slotCount > 64)
+            throw new IllegalArgumentException("slotCount must be between 1 and 64: " + slotCount);
+        this.firstSlot = firstSlot;
+        this.slotCount = slotCount;
+        this.allMask = slotCount == 64 ? -1L : (1L << slotCount) - 1;
+        this.dirty = allMask;
+    }
+
+    public int getFirstSlot() {
+        return firstSlot;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public void markSlot(int slotId) {
+        int bit = slotId - firstSlot;
+        if (bit >= 0 && bit < slotCount) dirty |= 1L << bit;
+    }
+
+    public void markAll() {
+        dirty = allMask;
+    }
+
+    public void clearSlot(int slotId) {
+        int bit = slotId - firstSlot;
+        if (bit >= 0 && bit < slotCount) dirty &= ~(1L << bit);
+    }
+
+    public boolean isIdle() {
+        return dirty == 0;
+    }
+
+    public long getDirtyMask() {
+        return dirty;
+    }
+}
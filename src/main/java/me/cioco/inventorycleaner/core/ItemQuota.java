@@ -0,0 +1,40 @@
+package me.cioco.inventorycleaner.core;
+
+import java.util.Locale;
+
+/**
+ * Keep at most {@code limit} items of an item or tag in total, written as {@code minecraft:torch=64}
+ * or {@code #minecraft:logs=128}.
+ */
+public record ItemQuota(String target, int limit) {
+
+    public static ItemQuota parse(String spec) {
+        int eq = spec.lastIndexOf('=');
+        if (eq <= 0 || eq == spec.length() - 1)
+            throw new IllegalArgumentException("Expected <item|#tag>=<count>: " + spec);
+
+        String target = spec.substring(0, eq).trim().toLowerCase(Locale.ROOT);
+        boolean tag = target.startsWith(ItemRule.TAG_PREFIX);
+        String id = tag ? target.substring(1) : target;
+        if (id.isEmpty()) throw new IllegalArgumentException("Expected <item|#tag>=<count>: " + spec);
+        if (id.indexOf(':') < 0) id = "minecraft:" + id;
+
+        int limit;
+        try {
+            limit = Integer.parseInt(spec.substring(eq + 1).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected a count in '" + spec + "'");
+        }
+        if (limit < 0) throw new IllegalArgumentException("Quota must not be negative: " + spec);
+        return new ItemQuota(tag ? ItemRule.TAG_PREFIX + id : id, limit);
+    }
+
+    public boolean isTag() {
+        return target.startsWith(ItemRule.TAG_PREFIX);
+    }
+
+    @Override
+    public String toString() {
+        return target + "=" + limit;
+    }
+}
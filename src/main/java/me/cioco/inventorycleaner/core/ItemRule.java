@@ -0,0 +1,150 @@
+package me.cioco.inventorycleaner.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One line of the rule language: {@code throw|keep <item id|#tag|*> [condition...]}.
+ * <p>
+ * Conditions are {@code enchanted}, {@code damaged} and {@code named}, comparisons on {@code count},
+ * {@code damage} (percent of max durability) and {@code durability} (uses left) such as {@code count>=32},
+ * and {@code potion=<id>}. Any condition can be negated with a leading {@code !}. All conditions of a rule
+ * must hold; the first matching rule decides.
+ */
+public record ItemRule(boolean throwItem, String target, List<Condition> conditions, String source) {
+
+    public static final String WILDCARD = "*";
+    public static final String TAG_PREFIX = "#";
+
+    public ItemRule {
+        conditions = List.copyOf(conditions);
+    }
+
+    public boolean isWildcard() {
+        return WILDCARD.equals(target);
+    }
+
+    public boolean isTag() {
+        return target.startsWith(TAG_PREFIX);
+    }
+
+    public static ItemRule parse(String line) {
+        String[] tokens = line.trim().split("\\s+");
+        if (tokens.length < 2 || tokens[0].isEmpty())
+            throw new IllegalArgumentException("Expected 'throw|keep <item> [conditions]': " + line);
+
+        boolean throwItem;
+        switch (tokens[0].toLowerCase()) {
+            case "throw" -> throwItem = true;
+            case "keep" -> throwItem = false;
+            default -> throw new IllegalArgumentException("Unknown action '" + tokens[0] + "': " + line);
+        }
+
+        String target = tokens[1].toLowerCase();
+        if (target.startsWith(TAG_PREFIX)) {
+            if (target.length() == 1) throw new IllegalArgumentException("Empty tag: " + line);
+            if (target.indexOf(':') < 0) target = TAG_PREFIX + "minecraft:" + target.substring(1);
+        } else if (!target.equals(WILDCARD) && target.indexOf(':') < 0) {
+            target = "minecraft:" + target;
+        }
+
+        List<Condition> conditions = new ArrayList<>(tokens.length - 2);
+        for (int i = 2; i < tokens.length; i++) conditions.add(Condition.parse(tokens[i], line));
+        return new ItemRule(throwItem, target, conditions, line.trim());
+    }
+
+    /**
+     * Condition kinds in ascending evaluation cost; compiled rules check cheaper kinds first.
+     */
+    public enum Kind {
+        COUNT, DAMAGED, DAMAGE, DURABILITY, NAMED, ENCHANTED, POTION;
+
+        boolean isNumeric() {
+            return this == COUNT || this == DAMAGE || this == DURABILITY;
+        }
+    }
+
+    public enum Op {
+        LT, LE, GT, GE, EQ;
+
+        boolean test(int value, int operand) {
+            return switch (this) {
+                case LT -> value < operand;
+                case LE -> value <= operand;
+                case GT -> value > operand;
+                case GE -> value >= operand;
+                case EQ -> value == operand;
+            };
+        }
+    }
+
+    /**
+     * A single condition. {@code operand} is a number for numeric kinds, a potion id for {@link Kind#POTION}
+     * and unused otherwise.
+     */
+    public record Condition(Kind kind, Op op, boolean negated, String operand) {
+
+        static Condition parse(String token, String line) {
+            boolean negated = token.startsWith("!");
+            String text = (negated ? token.substring(1) : token).toLowerCase();
+
+            int opStart = 0;
+            while (opStart < text.length() && Character.isLetter(text.charAt(opStart))) opStart++;
+            String name = text.substring(0, opStart);
+            String rest = text.substring(opStart);
+
+            Kind kind = switch (name) {
+                case "count" -> Kind.COUNT;
+                case "damaged" -> Kind.DAMAGED;
+                case "damage" -> Kind.DAMAGE;
+                case "durability" -> Kind.DURABILITY;
+                case "named" -> Kind.NAMED;
+                case "enchanted" -> Kind.ENCHANTED;
+                case "potion" -> Kind.POTION;
+                default -> throw new IllegalArgumentException("Unknown condition '" + token + "': " + line);
+            };
+
+            if (kind == Kind.POTION) {
+                if (!rest.startsWith("=") || rest.length() == 1)
+                    throw new IllegalArgumentException("Expected potion=<id>: " + line);
+                String id = rest.substring(1);
+                return new Condition(kind, Op.EQ, negated, id.indexOf(':') < 0 ? "minecraft:" + id : id);
+            }
+
+            if (!kind.isNumeric()) {
+                if (!rest.isEmpty()) throw new IllegalArgumentException("'" + name + "' takes no value: " + line);
+                return new Condition(kind, Op.EQ, negated, "");
+            }
+
+            Op op;
+            int opLength;
+            if (rest.startsWith("<=")) {
+                op = Op.LE;
+                opLength = 2;
+            } else if (rest.startsWith(">=")) {
+                op = Op.GE;
+                opLength = 2;
+            } else if (rest.startsWith("<")) {
+                op = Op.LT;
+                opLength = 1;
+            } else if (rest.startsWith(">")) {
+                op = Op.GT;
+                opLength = 1;
+            } else if (rest.startsWith("=")) {
+                op = Op.EQ;
+                opLength = 1;
+            } else {
+                throw new IllegalArgumentException("Expected a comparison after '" + name + "': " + line);
+            }
+
+            String number = rest.substring(opLength);
+            if (kind == Kind.DAMAGE && number.endsWith("%")) number = number.substring(0, number.length() - 1);
+            try {
+                Integer.parseInt(number);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Expected a number in '" + token + "': " + line);
+            }
+            return new Condition(kind, op, negated, number);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package me.cioco.inventorycleaner.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Substring search over item ids, returning full {@code namespace:path} ids.
+ * <p>
+ * An id matches when it contains the query. Results list ids whose path starts with the query first, then the
+ * rest, both ordered by path and then namespace. Candidates come from a trigram index, or from the previous
+ * query's matches when the new query extends it.
+ */
+public class ItemSearchIndex {
+
+    private static final int[] NO_MATCHES = new int[0];
+
+    private final String[] ids;
+    private final String[] paths;
+    private final Map<Long, int[]> trigrams = new HashMap<>();
+
+    private String lastQuery;
+    private int[] lastMatches;
+
+    public ItemSearchIndex(Collection<String> itemIds) {
+        TreeMap<String, String> byPath = new TreeMap<>();
+        for (String id : itemIds) {
+            String lower = id.toLowerCase();
+            byPath.put(path(lower) + '\n' + lower, lower);
+        }
+
+        ids = byPath.values().toArray(new String[0]);
+        paths = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) paths[i] = path(ids[i]);
+
+        Map<Long, List<Integer>> postings = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            String text = ids[i];
+            for (int j = 0; j + 3 <= text.length(); j++) {
+                List<Integer> list = postings.computeIfAbsent(trigram(text, j), k -> new ArrayList<>());
+                if (list.isEmpty() || list.get(list.size() - 1) != i) list.add(i);
+            }
+        }
+        for (Map.Entry<Long, List<Integer>> entry : postings.entrySet())
+            trigrams.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public int size() {
+        return paths.length;
+    }
+
+    public List<String> search(String query, int limit) {
+        List<String> results = new ArrayList<>(Math.min(limit, 64));
+        if (query.isEmpty() || limit <= 0) {
+            lastQuery = null;
+            lastMatches = null;
+            return results;
+        }
+
+        String q = query.toLowerCase();
+        int[] candidates = candidates(q);
+        int[] matches = new int[candidates == null ? paths.length : candidates.length];
+        int count = 0;
+
+        int[] prefixed = new int[limit];
+        int prefixedCount = 0;
+        int[] others = new int[limit];
+        int othersCount = 0;
+
+        int n = candidates == null ? paths.length : candidates.length;
+        for (int c = 0; c < n; c++) {
+            int i = candidates == null ? c : candidates[c];
+            if (!ids[i].contains(q)) continue;
+            matches[count++] = i;
+
+            if (paths[i].startsWith(q)) {
+                if (prefixedCount < limit) prefixed[prefixedCount++] = i;
+            } else if (othersCount < limit) {
+                others[othersCount++] = i;
+            }
+        }
+
+        lastQuery = q;
+        lastMatches = count == matches.length ? matches : Arrays.copyOf(matches, count);
+
+        for (int i = 0; i < prefixedCount; i++) results.add(ids[prefixed[i]]);
+        for (int i = 0; i < othersCount && results.size() < limit; i++) results.add(ids[others[i]]);
+        return results;
+    }
+
+    private int[] candidates(String q) {
+        int[] best = null;
+        if (lastQuery != null && q.contains(lastQuery)) best = lastMatches;
+
+        for (int j = 0; j + 3 <= q.length(); j++) {
+            int[] posting = trigrams.getOrDefault(trigram(q, j), NO_MATCHES);
+            if (best == null || posting.length < best.length) best = posting;
+            if (best.length == 0) break;
+        }
+        return best;
+    }
+
+    private static String path(String id) {
+        return id.substring(id.indexOf(':') + 1);
+    }
+
+    private static long trigram(String text, int offset) {
+        return ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+    }
+}
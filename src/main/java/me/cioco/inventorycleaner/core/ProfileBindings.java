@@ -0,0 +1,124 @@
+package me.cioco.inventorycleaner.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Maps where the player is to the profile that should be active there.
+ * <p>
+ * Keys are {@code server.<address>}, {@code world.<name>} or {@code dimension.<id>}. Server and world keys can be
+ * narrowed to one dimension with {@code |<dimension id>}. The most specific binding wins: server or world with
+ * dimension, then dimension alone, then server or world alone.
+ */
+public class ProfileBindings {
+
+    public static final String SERVER = "server.";
+    public static final String WORLD = "world.";
+    public static final String DIMENSION = "dimension.";
+    private static final String NARROW = "|";
+
+    private final Map<String, String> bindings = new TreeMap<>();
+
+    public static String serverKey(String address) {
+        return SERVER + address.toLowerCase();
+    }
+
+    public static String worldKey(String name) {
+        return WORLD + name;
+    }
+
+    public static String dimensionKey(String dimension) {
+        return DIMENSION + dimension;
+    }
+
+    public static String narrow(String key, String dimension) {
+        return key + NARROW + dimension;
+    }
+
+    /**
+     * Profile bound to the given place, or null. {@code server} and {@code world} may be null.
+     */
+    public String resolve(String server, String world, String dimension) {
+        String place = server != null ? serverKey(server) : world != null ? worldKey(world) : null;
+        String profile = null;
+        if (place != null && dimension != null) profile = bindings.get(narrow(place, dimension));
+        if (profile == null && dimension != null) profile = bindings.get(dimensionKey(dimension));
+        if (profile == null && place != null) profile = bindings.get(place);
+        return profile;
+    }
+
+    public String get(String key) {
+        return bindings.get(key);
+    }
+
+    public void put(String key, String profile) {
+        if (!isValidKey(key)) throw new IllegalArgumentException("Unknown binding key: " + key);
+        bindings.put(key, profile);
+    }
+
+    public boolean remove(String key) {
+        return bindings.remove(key) != null;
+    }
+
+    public boolean isEmpty() {
+        return bindings.isEmpty();
+    }
+
+    public Map<String, String> asMap() {
+        return Collections.unmodifiableMap(bindings);
+    }
+
+    public Set<String> getBoundProfiles() {
+        return new TreeSet<>(bindings.values());
+    }
+
+    /**
+     * Keys bound to {@code profile}, in key order.
+     */
+    public Set<String> keysFor(String profile) {
+        Set<String> keys = new TreeSet<>();
+        for (Map.Entry<String, String> entry : bindings.entrySet())
+            if (entry.getValue().equals(profile)) keys.add(entry.getKey());
+        return keys;
+    }
+
+    public static boolean isValidKey(String key) {
+        if (key.startsWith(DIMENSION)) return key.length() > DIMENSION.length() && !key.contains(NARROW);
+        return (key.startsWith(SERVER) && key.length() > SERVER.length())
+                || (key.startsWith(WORLD) && key.length() > WORLD.length());
+    }
+
+    public void load(Path path) {
+        bindings.clear();
+        if (!Files.exists(path)) return;
+        try (InputStream input = Files.newInputStream(path)) {
+            Properties properties = new Properties();
+            properties.load(input);
+            for (String key : properties.stringPropertyNames()) {
+                String profile = properties.getProperty(key).trim();
+                if (isValidKey(key) && !profile.isEmpty()) bindings.put(key, profile);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        properties.putAll(bindings);
+        return properties;
+    }
+
+    public static void writeProperties(Properties properties, OutputStream output) throws IOException {
+        properties.store(output, "InventoryCleaner profile bindings");
+    }
+}
@@ -0,0 +1,228 @@
+package me.cioco.inventorycleaner.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Keeps every profile in the config directory parsed in memory and follows external edits through a
+ * {@link WatchService}. Files written by this mod are reported through {@code ownWrite} and skipped,
+ * since callers {@link #put} the new state directly.
+ */
+public class ProfileRepository implements AutoCloseable {
+
+    public static final String PROPERTIES_EXTENSION = ".properties";
+
+    private final Path dir;
+    private final Predicate<Path> ownWrite;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger version = new AtomicInteger();
+    private volatile Consumer<Entry> externalChangeListener = entry -> {
+    };
+    private WatchService watchService;
+    private Thread watcher;
+
+    public ProfileRepository(Path dir, Predicate<Path> ownWrite) {
+        this.dir = dir;
+        this.ownWrite = ownWrite;
+    }
+
+    public void start() {
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        reindex();
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        watcher = new Thread(this::watchLoop, "InventoryCleaner Profile Watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    public void setExternalChangeListener(Consumer<Entry> listener) {
+        this.externalChangeListener = listener;
+    }
+
+    public Entry get(String name) {
+        return entries.get(name);
+    }
+
+    public List<Entry> list() {
+        List<Entry> list = new ArrayList<>(entries.values());
+        list.sort(Comparator.comparing(Entry::name));
+        return list;
+    }
+
+    public int getVersion() {
+        return version.get();
+    }
+
+    public void put(Entry entry) {
+        entries.put(entry.name(), entry);
+        version.incrementAndGet();
+    }
+
+    public void delete(String name) throws IOException {
+        entries.remove(name);
+        version.incrementAndGet();
+        Files.deleteIfExists(dir.resolve(name + PROPERTIES_EXTENSION));
+        Files.deleteIfExists(dir.resolve(name + BinaryProfileCodec.EXTENSION));
+    }
+
+    @Override
+    public void close() {
+        if (watchService == null) return;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void reindex() {
+        Set<String> names = new HashSet<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(p -> {
+                String name = profileName(p);
+                if (name != null) names.add(name);
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        entries.keySet().removeIf(name -> !names.contains(name));
+        for (String name : names) refresh(name, false);
+        version.incrementAndGet();
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean overflow = false;
+                List<String> changed = new ArrayList<>();
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflow = true;
+                        continue;
+                    }
+                    Path file = dir.resolve((Path) event.context());
+                    String name = profileName(file);
+                    if (name == null || ownWrite.test(file) || changed.contains(name)) continue;
+                    changed.add(name);
+                }
+                key.reset();
+
+                if (overflow) reindex();
+                else for (String name : changed) refresh(name, true);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+        }
+    }
+
+    private void refresh(String name, boolean notify) {
+        Path properties = dir.resolve(name + PROPERTIES_EXTENSION);
+        Path binary = dir.resolve(name + BinaryProfileCodec.EXTENSION);
+        long propertiesTime = lastModified(properties);
+        long binaryTime = lastModified(binary);
+
+        Entry entry = null;
+        if (binaryTime >= 0 && binaryTime >= propertiesTime) entry = readBinary(name, binary, binaryTime);
+        if (entry == null && propertiesTime >= 0) entry = readProperties(name, properties, propertiesTime);
+
+        if (entry == null) {
+            if (propertiesTime < 0 && binaryTime < 0 && entries.remove(name) != null) version.incrementAndGet();
+            return;
+        }
+
+        entries.put(name, entry);
+        version.incrementAndGet();
+        if (notify) externalChangeListener.accept(entry);
+    }
+
+    private static Entry readBinary(String name, Path path, long lastModified) {
+        try {
+            BinaryProfileCodec.Profile profile = BinaryProfileCodec.read(path, name);
+            return new Entry(name, profile.snapshot(), profile.rawItemIds(), profile.registryFingerprint(),
+                    true, lastModified);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static Entry readProperties(String name, Path path, long lastModified) {
+        try (InputStream input = Files.newInputStream(path)) {
+            Properties properties = new Properties();
+            properties.load(input);
+            return new Entry(name, ConfigSnapshot.fromProperties(name, properties), null, 0L,
+                    false, lastModified);
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static String profileName(Path path) {
+        String file = path.getFileName().toString();
+        if (file.endsWith(PROPERTIES_EXTENSION))
+            return file.substring(0, file.length() - PROPERTIES_EXTENSION.length());
+        if (file.endsWith(BinaryProfileCodec.EXTENSION))
+            return file.substring(0, file.length() - BinaryProfileCodec.EXTENSION.length());
+        return null;
+    }
+
+    /**
+     * A parsed profile. {@code rawItemIds} is only set for binary profiles and is only usable while
+     * the running item registry matches {@code registryFingerprint}.
+     */
+    public record Entry(String name, ConfigSnapshot snapshot, int[] rawItemIds, long registryFingerprint,
+                        boolean binary, long lastModified) {
+
+        public int getItemCount() {
+            return snapshot.itemIds().size() + snapshot.itemTags().size();
+        }
+
+        public int getSlotCount() {
+            return snapshot.getSlotCount();
+        }
+    }
+}
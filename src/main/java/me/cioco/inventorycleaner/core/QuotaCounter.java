@@ -0,0 +1,167 @@
+package me.cioco.inventorycleaner.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Compiled quotas plus running per-quota totals of the inventory.
+ * <p>
+ * Totals are updated from the dirty slots of a {@link DirtySlotTracker} only, using the last count seen
+ * per slot, so the inventory is never re-summed. When a total changes, every slot of that quota is marked
+ * dirty again so the selector re-evaluates it. The surplus slot of a quota is the smallest unlocked stack
+ * that still fits into the surplus; it is cached until the total changes.
+ * A fresh counter is compiled with every {@link RuleTable} and rebuilds its totals on the next full scan.
+ */
+public final class QuotaCounter {
+
+    public static final QuotaCounter NONE = new QuotaCounter(new int[0], new int[0]);
+
+    private static final int MAX_SLOTS = 64;
+    private static final int STALE = -2;
+
+    private final int[] groupByItem;
+    private final int[] limits;
+    private final int[] totals;
+    private final long[] slotMasks;
+    private final int[] surplusSlots;
+    private final boolean[] changed;
+    private final int[] changedList;
+    private final int[] slotGroups = new int[MAX_SLOTS];
+    private final int[] slotCounts = new int[MAX_SLOTS];
+
+    private QuotaCounter(int[] groupByItem, int[] limits) {
+        this.groupByItem = groupByItem;
+        this.limits = limits;
+        this.totals = new int[limits.length];
+        this.slotMasks = new long[limits.length];
+        this.surplusSlots = new int[limits.length];
+        this.changed = new boolean[limits.length];
+        this.changedList = new int[limits.length];
+        Arrays.fill(slotGroups, -1);
+        Arrays.fill(surplusSlots, STALE);
+    }
+
+    /**
+     * An item covered by several quotas counts towards the first one only. Quotas whose target does
+     * not resolve are dropped.
+     */
+    public static QuotaCounter compile(List<ItemQuota> quotas, ToIntFunction<String> itemRawIds,
+                                       Function<String, int[]> tagRawIds) {
+        if (quotas.isEmpty()) return NONE;
+
+        int[][] members = new int[quotas.size()][];
+        int maxId = -1;
+        for (int q = 0; q < quotas.size(); q++) {
+            ItemQuota quota = quotas.get(q);
+            members[q] = quota.isTag()
+                    ? tagRawIds.apply(quota.target().substring(ItemRule.TAG_PREFIX.length()))
+                    : new int[]{itemRawIds.applyAsInt(quota.target())};
+            for (int id : members[q]) maxId = Math.max(maxId, id);
+        }
+        if (maxId < 0) return NONE;
+
+        int[] groupByItem = new int[maxId + 1];
+        Arrays.fill(groupByItem, -1);
+        int[] limits = new int[quotas.size()];
+        int groups = 0;
+        for (int q = 0; q < quotas.size(); q++) {
+            boolean used = false;
+            for (int id : members[q]) {
+                if (id < 0 || groupByItem[id] >= 0) continue;
+                groupByItem[id] = groups;
+                used = true;
+            }
+            if (used) limits[groups++] = quotas.get(q).limit();
+        }
+        return new QuotaCounter(groupByItem, Arrays.copyOf(limits, groups));
+    }
+
+    public boolean isEmpty() {
+        return limits.length == 0;
+    }
+
+    public int groupOf(int rawItemId) {
+        return rawItemId >= 0 && rawItemId < groupByItem.length ? groupByItem[rawItemId] : -1;
+    }
+
+    public int getTotal(int group) {
+        return totals[group];
+    }
+
+    public int getLimit(int group) {
+        return limits[group];
+    }
+
+    /**
+     * Folds the current contents of every dirty slot into the totals.
+     */
+    public void refresh(DirtySlotTracker tracker, SlotSelector.SlotView view) {
+        if (limits.length == 0) return;
+
+        int changedCount = 0;
+        int firstSlot = tracker.getFirstSlot();
+        for (long dirty = tracker.getDirtyMask(); dirty != 0; dirty &= dirty - 1) {
+            int slotId = firstSlot + Long.numberOfTrailingZeros(dirty);
+            if (slotId >= MAX_SLOTS) break;
+
+            int rawId = view.rawItemId(slotId);
+            int group = groupOf(rawId);
+            int count = group >= 0 ? view.count(slotId) : 0;
+            int oldGroup = slotGroups[slotId];
+            int oldCount = slotCounts[slotId];
+            if (group == oldGroup && count == oldCount) continue;
+
+            long bit = 1L << slotId;
+            if (oldGroup >= 0) {
+                totals[oldGroup] -= oldCount;
+                slotMasks[oldGroup] &= ~bit;
+                if (!changed[oldGroup]) changedList[changedCount++] = oldGroup;
+                changed[oldGroup] = true;
+            }
+            if (group >= 0) {
+                totals[group] += count;
+                slotMasks[group] |= bit;
+                if (!changed[group]) changedList[changedCount++] = group;
+                changed[group] = true;
+            }
+            slotGroups[slotId] = group;
+            slotCounts[slotId] = count;
+        }
+
+        for (int i = 0; i < changedCount; i++) {
+            int group = changedList[i];
+            changed[group] = false;
+            surplusSlots[group] = STALE;
+            for (long slots = slotMasks[group]; slots != 0; slots &= slots - 1)
+                tracker.markSlot(Long.numberOfTrailingZeros(slots));
+        }
+    }
+
+    /**
+     * Whether {@code slotId} is the stack to throw next for its quota. {@code lockedSlotMask} uses vanilla
+     * slot indices, like {@link RuleTable#getLockedSlotMask()}.
+     */
+    public boolean isSurplus(int group, int slotId, long lockedSlotMask) {
+        if (surplusSlots[group] == STALE) surplusSlots[group] = findSurplusSlot(group, lockedSlotMask);
+        return surplusSlots[group] == slotId;
+    }
+
+    private int findSurplusSlot(int group, long lockedSlotMask) {
+        int surplus = totals[group] - limits[group];
+        if (surplus <= 0) return -1;
+
+        int best = -1;
+        int bestCount = Integer.MAX_VALUE;
+        for (long slots = slotMasks[group]; slots != 0; slots &= slots - 1) {
+            int slotId = Long.numberOfTrailingZeros(slots);
+            int count = slotCounts[slotId];
+            if (count > surplus || count >= bestCount) continue;
+            if ((lockedSlotMask >>> SlotSelector.toVanillaSlot(slotId) & 1L) != 0) continue;
+            best = slotId;
+            bestCount = count;
+        }
+        return best;
+    }
+}
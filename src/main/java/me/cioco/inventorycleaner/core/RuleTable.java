@@ -0,0 +1,98 @@
+package me.cioco.inventorycleaner.core;
+
+/**
+ * Compiled form of the item list, locked slots, component rules and quotas.
+ * Items are stored as a bitset indexed by raw registry id, locked slots as a single mask.
+ * Component rules take precedence over quotas, and quotas over the item list, for the items they cover.
+ * Everything is immutable except the running totals of the {@link QuotaCounter}.
+ */
+public final class RuleTable {
+
+    public static final RuleTable EMPTY = new RuleTable(new long[0], 0L, false, 0, ComponentRules.NONE, QuotaCounter.NONE);
+
+    private final long[] itemBits;
+    private final long lockedSlotMask;
+    private final boolean whitelist;
+    private final int itemCount;
+    private final ComponentRules componentRules;
+    private final QuotaCounter quotas;
+
+    private RuleTable(long[] itemBits, long lockedSlotMask, boolean whitelist, int itemCount,
+                      ComponentRules componentRules, QuotaCounter quotas) {
+        this.itemBits = itemBits;
+        this.lockedSlotMask = lockedSlotMask;
+        this.whitelist = whitelist;
+        this.itemCount = itemCount;
+        this.componentRules = componentRules;
+        this.quotas = quotas;
+    }
+
+    public static RuleTable compile(int[] rawItemIds, int[] lockedSlots, boolean whitelist) {
+        return compile(rawItemIds, lockedSlots, whitelist, ComponentRules.NONE, QuotaCounter.NONE);
+    }
+
+    public static RuleTable compile(int[] rawItemIds, int[] lockedSlots, boolean whitelist,
+                                    ComponentRules componentRules, QuotaCounter quotas) {
+        int maxId = -1;
+        for (int id : rawItemIds) maxId = Math.max(maxId, id);
+
+        long[] bits = new long[(maxId >> 6) + 1];
+        int count = 0;
+        for (int id : rawItemIds) {
+            if (id < 0) continue;
+            long bit = 1L << id;
+            if ((bits[id >>> 6] & bit) == 0) count++;
+            bits[id >>> 6] |= bit;
+        }
+
+        long mask = 0L;
+        for (int slot : lockedSlots)
+            if (slot >= 0 && slot < 64) mask |= 1L << slot;
+
+        return new RuleTable(bits, mask, whitelist, count, componentRules, quotas);
+    }
+
+    public boolean containsItem(int rawItemId) {
+        int word = rawItemId >>> 6;
+        return word < itemBits.length && (itemBits[word] & (1L << rawItemId)) != 0;
+    }
+
+    public boolean isSlotLocked(int vanillaSlot) {
+        return vanillaSlot >= 0 && vanillaSlot < 64 && (lockedSlotMask >>> vanillaSlot & 1L) != 0;
+    }
+
+    public boolean shouldThrow(int vanillaSlot, int rawItemId) {
+        return (lockedSlotMask >>> vanillaSlot & 1L) == 0 && containsItem(rawItemId) != whitelist;
+    }
+
+    public boolean shouldThrow(int vanillaSlot, int rawItemId, SlotSelector.SlotView view, int slotId) {
+        if ((lockedSlotMask >>> vanillaSlot & 1L) != 0) return false;
+        if (componentRules.hasRulesFor(rawItemId)) {
+            int decision = componentRules.decide(rawItemId, view, slotId);
+            if (decision != ComponentRules.NO_MATCH) return decision == ComponentRules.THROW;
+        }
+        int group = quotas.groupOf(rawItemId);
+        if (group >= 0) return quotas.isSurplus(group, slotId, lockedSlotMask);
+        return containsItem(rawItemId) != whitelist;
+    }
+
+    public ComponentRules getComponentRules() {
+        return componentRules;
+    }
+
+    public QuotaCounter getQuotas() {
+        return quotas;
+    }
+
+    public long getLockedSlotMask() {
+        return lockedSlotMask;
+    }
+
+    public boolean isWhitelist() {
+        return whitelist;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+}
@@ -0,0 +1,74 @@
+package me.cioco.inventorycleaner.core;
+
+/**
+ * Picks the next slot to throw from the dirty slots of a tracker. Slots that turn out to be keepers
+ * are cleared from the tracker; a throwable slot stays dirty until its contents change.
+ */
+public final class SlotSelector {
+
+    private SlotSelector() {
+    }
+
+    public static int findThrowable(DirtySlotTracker tracker, RuleTable rules, SlotView view) {
+        return findThrowable(tracker, rules, view, 0L);
+    }
+
+    /**
+     * Like {@link #findThrowable(DirtySlotTracker, RuleTable, SlotView)}, but skips the handler slots in
+     * {@code skipMask} and leaves them dirty.
+     */
+    public static int findThrowable(DirtySlotTracker tracker, RuleTable rules, SlotView view, long skipMask) {
+        rules.getQuotas().refresh(tracker, view);
+        int firstSlot = tracker.getFirstSlot();
+        long pending = tracker.getDirtyMask();
+        while (pending != 0) {
+            int slotId = firstSlot + Long.numberOfTrailingZeros(pending);
+            pending &= pending - 1;
+            if (slotId < 64 && (skipMask >>> slotId & 1L) != 0) continue;
+
+            int rawId = view.rawItemId(slotId);
+            if (rawId >= 0 && rules.shouldThrow(toVanillaSlot(slotId), rawId, view, slotId)) return slotId;
+            tracker.clearSlot(slotId);
+        }
+        return -1;
+    }
+
+    public static int toVanillaSlot(int handlerSlot) {
+        return handlerSlot >= 36 ? handlerSlot - 36 : handlerSlot;
+    }
+
+    @FunctionalInterface
+    public interface SlotView {
+        /**
+         * Raw registry id of the item in the given handler slot, or -1 if the slot is empty.
+         */
+        int rawItemId(int slotId);
+
+        /**
+         * Component accessors used by {@link ComponentRules}; only called for items that have rules.
+         */
+        default int count(int slotId) {
+            return 1;
+        }
+
+        default int damage(int slotId) {
+            return 0;
+        }
+
+        default int maxDamage(int slotId) {
+            return 0;
+        }
+
+        default boolean hasCustomName(int slotId) {
+            return false;
+        }
+
+        default boolean isEnchanted(int slotId) {
+            return false;
+        }
+
+        default int potionId(int slotId) {
+            return -1;
+        }
+    }
+}
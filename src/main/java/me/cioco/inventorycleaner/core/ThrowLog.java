@@ -0,0 +1,396 @@
+package me.cioco.inventorycleaner.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Append-only log of every throw, for the statistics tab.
+ * <p>
+ * {@link #record} writes into a preallocated ring buffer and never allocates or touches the disk, so it can run
+ * on the tick path. A background thread drains the buffer every few seconds and appends it to the log as one
+ * length-prefixed frame with its own name table. When the log grows past {@link #COMPACT_BYTES}, and once at
+ * start-up, all frames are rolled up into hourly totals per session, item and profile. A frame cut short by a
+ * crash is dropped at that point. Records that arrive while the buffer is full are counted and discarded.
+ */
+public class ThrowLog implements AutoCloseable {
+
+    public static final long COMPACT_BYTES = 256 * 1024;
+    private static final int CAPACITY = 4096;
+    private static final int MASK = CAPACITY - 1;
+    private static final long FLUSH_INTERVAL_MILLIS = 5_000;
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final byte FRAME_RAW = 1;
+    private static final byte FRAME_ROLLUP = 2;
+
+    private final Path path;
+    private final IntFunction<String> itemNames;
+    private final long sessionStart = System.currentTimeMillis();
+    private final long[] times = new long[CAPACITY];
+    private final int[] items = new int[CAPACITY];
+    private final int[] counts = new int[CAPACITY];
+    private final int[] profiles = new int[CAPACITY];
+    private final List<String> profileNames = new ArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Object fileLock = new Object();
+    private final ScheduledExecutorService executor;
+    private volatile long head = 0;
+    private volatile long tail = 0;
+    private int currentProfile = 0;
+
+    /**
+     * @param itemNames maps a raw item id to its registry id; called on the flusher thread
+     */
+    public ThrowLog(Path path, IntFunction<String> itemNames) {
+        this.path = path;
+        this.itemNames = itemNames;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "InventoryCleaner Throw Log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        setProfile("default");
+    }
+
+    public void start() {
+        executor.execute(this::compactQuietly);
+        executor.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Profile that following throws are attributed to. Call it when the profile changes, not per throw.
+     */
+    public void setProfile(String name) {
+        synchronized (profileNames) {
+            int index = profileNames.indexOf(name);
+            if (index < 0) {
+                index = profileNames.size();
+                profileNames.add(name);
+            }
+            currentProfile = index;
+        }
+    }
+
+    public void record(int rawItemId, int count, long nowMillis) {
+        long h = head;
+        if (h - tail == CAPACITY) {
+            dropped.incrementAndGet();
+            return;
+        }
+        int i = (int) (h & MASK);
+        times[i] = nowMillis;
+        items[i] = rawItemId;
+        counts[i] = count;
+        profiles[i] = currentProfile;
+        head = h + 1;
+    }
+
+    public long getSessionStart() {
+        return sessionStart;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Flushes buffered throws and aggregates the whole log on the flusher thread.
+     */
+    public CompletableFuture<Summary> summarize() {
+        return CompletableFuture.supplyAsync(() -> {
+            synchronized (fileLock) {
+                try {
+                    drain();
+                    Map<Bucket, long[]> buckets = new HashMap<>();
+                    readBuckets(buckets);
+                    return Summary.of(buckets, sessionStart, dropped.get());
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }, executor);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        synchronized (fileLock) {
+            try {
+                drain();
+                if (Files.exists(path) && Files.size(path) > COMPACT_BYTES) compact();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void compactQuietly() {
+        synchronized (fileLock) {
+            try {
+                compact();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void drain() throws IOException {
+        long start = tail;
+        long end = head;
+        if (start == end) return;
+
+        int n = (int) (end - start);
+        Map<String, Integer> names = new LinkedHashMap<>();
+        int[] itemIndex = new int[n];
+        int[] profileIndex = new int[n];
+        long base = Long.MAX_VALUE;
+        synchronized (profileNames) {
+            for (int k = 0; k < n; k++) {
+                int i = (int) ((start + k) & MASK);
+                itemIndex[k] = names.computeIfAbsent(itemNames.apply(items[i]), key -> names.size());
+                profileIndex[k] = names.computeIfAbsent(profileNames.get(profiles[i]), key -> names.size());
+                base = Math.min(base, times[i]);
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + n * 8);
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeNames(out, names);
+        out.writeLong(sessionStart);
+        out.writeLong(base);
+        writeVarLong(out, n);
+        for (int k = 0; k < n; k++) {
+            int i = (int) ((start + k) & MASK);
+            writeVarLong(out, times[i] - base);
+            writeVarLong(out, itemIndex[k]);
+            writeVarLong(out, profileIndex[k]);
+            writeVarLong(out, counts[i]);
+        }
+        tail = end;
+
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try (OutputStream file = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writeFrame(file, FRAME_RAW, bytes);
+        }
+    }
+
+    /**
+     * Rewrites the log as a single roll-up frame. Also drops a trailing frame that was cut short.
+     */
+    private void compact() throws IOException {
+        if (!Files.exists(path)) return;
+        Map<Bucket, long[]> buckets = new HashMap<>();
+        readBuckets(buckets);
+
+        Map<String, Integer> names = new LinkedHashMap<>();
+        for (Bucket bucket : buckets.keySet()) {
+            names.computeIfAbsent(bucket.item(), key -> names.size());
+            names.computeIfAbsent(bucket.profile(), key -> names.size());
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeNames(out, names);
+        writeVarLong(out, buckets.size());
+        for (Map.Entry<Bucket, long[]> entry : buckets.entrySet()) {
+            Bucket bucket = entry.getKey();
+            writeVarLong(out, bucket.hour());
+            writeVarLong(out, bucket.session());
+            writeVarLong(out, names.get(bucket.item()));
+            writeVarLong(out, names.get(bucket.profile()));
+            writeVarLong(out, entry.getValue()[0]);
+            writeVarLong(out, entry.getValue()[1]);
+        }
+
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream file = Files.newOutputStream(temp)) {
+                if (!buckets.isEmpty()) writeFrame(file, FRAME_ROLLUP, bytes);
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void readBuckets(Map<Bucket, long[]> buckets) throws IOException {
+        if (!Files.exists(path)) return;
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        while (buffer.remaining() >= 5) {
+            int length = buffer.getInt();
+            byte kind = buffer.get();
+            if (length < 0 || length > buffer.remaining()) return;
+            ByteBuffer frame = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+
+            Map<Bucket, long[]> parsed = new HashMap<>();
+            try {
+                if (kind == FRAME_RAW) readRaw(frame, parsed);
+                else if (kind == FRAME_ROLLUP) readRollup(frame, parsed);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                return;
+            }
+            parsed.forEach((bucket, totals) -> add(buckets, bucket, totals[0], totals[1]));
+        }
+    }
+
+    private static void readRaw(ByteBuffer frame, Map<Bucket, long[]> buckets) {
+        String[] names = readNames(frame);
+        long session = frame.getLong();
+        long base = frame.getLong();
+        long n = readVarLong(frame);
+        for (long k = 0; k < n; k++) {
+            long time = base + readVarLong(frame);
+            String item = names[(int) readVarLong(frame)];
+            String profile = names[(int) readVarLong(frame)];
+            add(buckets, new Bucket(time / HOUR_MILLIS, session, item, profile), 1, readVarLong(frame));
+        }
+    }
+
+    private static void readRollup(ByteBuffer frame, Map<Bucket, long[]> buckets) {
+        String[] names = readNames(frame);
+        long n = readVarLong(frame);
+        for (long k = 0; k < n; k++) {
+            long hour = readVarLong(frame);
+            long session = readVarLong(frame);
+            String item = names[(int) readVarLong(frame)];
+            String profile = names[(int) readVarLong(frame)];
+            add(buckets, new Bucket(hour, session, item, profile), readVarLong(frame), readVarLong(frame));
+        }
+    }
+
+    private static void add(Map<Bucket, long[]> buckets, Bucket bucket, long throwCount, long itemCount) {
+        long[] totals = buckets.computeIfAbsent(bucket, key -> new long[2]);
+        totals[0] += throwCount;
+        totals[1] += itemCount;
+    }
+
+    private static void writeFrame(OutputStream file, byte kind, ByteArrayOutputStream payload) throws IOException {
+        DataOutputStream out = new DataOutputStream(file);
+        out.writeInt(payload.size());
+        out.writeByte(kind);
+        payload.writeTo(out);
+        out.flush();
+    }
+
+    private static void writeNames(DataOutputStream out, Map<String, Integer> names) throws IOException {
+        writeVarLong(out, names.size());
+        for (String name : names.keySet()) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String[] readNames(ByteBuffer frame) {
+        String[] names = new String[(int) readVarLong(frame)];
+        for (int i = 0; i < names.length; i++) {
+            byte[] bytes = new byte[(int) readVarLong(frame)];
+            frame.get(bytes);
+            names[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return names;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer frame) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = frame.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0) throw new IllegalArgumentException("negative length or count");
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("varint too long");
+    }
+
+    private record Bucket(long hour, long session, String item, String profile) {
+    }
+
+    /**
+     * Totals over the whole log. Item, profile and session maps count items; {@code throwsByHour} counts throws
+     * per hour since the epoch. Sessions are keyed by their start time in epoch milliseconds.
+     */
+    public record Summary(long throwCount, long itemCount, Map<String, Long> items, Map<String, Long> profiles,
+                          Map<Long, Long> sessions, Map<Long, Long> throwsByHour, long currentSession,
+                          long dropped) {
+
+        private static Summary of(Map<Bucket, long[]> buckets, long currentSession, long dropped) {
+            long throwCount = 0;
+            long itemCount = 0;
+            Map<String, Long> items = new HashMap<>();
+            Map<String, Long> profiles = new HashMap<>();
+            Map<Long, Long> sessions = new TreeMap<>();
+            Map<Long, Long> throwsByHour = new TreeMap<>();
+            for (Map.Entry<Bucket, long[]> entry : buckets.entrySet()) {
+                Bucket bucket = entry.getKey();
+                long[] totals = entry.getValue();
+                throwCount += totals[0];
+                itemCount += totals[1];
+                items.merge(bucket.item(), totals[1], Long::sum);
+                profiles.merge(bucket.profile(), totals[1], Long::sum);
+                sessions.merge(bucket.session(), totals[1], Long::sum);
+                throwsByHour.merge(bucket.hour(), totals[0], Long::sum);
+            }
+            return new Summary(throwCount, itemCount, Collections.unmodifiableMap(items),
+                    Collections.unmodifiableMap(profiles), Collections.unmodifiableMap(sessions),
+                    Collections.unmodifiableMap(throwsByHour), currentSession, dropped);
+        }
+
+        /**
+         * Average throws per hour over the hours in which anything was thrown.
+         */
+        public double getThrowsPerHour() {
+            return throwsByHour.isEmpty() ? 0 : (double) throwCount / throwsByHour.size();
+        }
+
+        public long getThrowsInHour(long epochMillis) {
+            return throwsByHour.getOrDefault(epochMillis / HOUR_MILLIS, 0L);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package me.cioco.inventorycleaner.core;
+
+/**
+ * Throws planned from the dirty slots of a tracker, waiting to be executed.
+ * <p>
+ * Planning evaluates every dirty slot once: keepers and planned throws are cleared from the tracker, and each
+ * slot is queued at most once. A queued slot whose contents change before it is thrown shows up dirty again,
+ * which drops it from the queue until it is re-evaluated. Slots are handed out in slot order.
+ */
+public class ThrowQueue {
+
+    private final DirtySlotTracker tracker;
+    private final int[] plannedItems = new int[64];
+    private long queued;
+
+    public ThrowQueue(DirtySlotTracker tracker) {
+        if (tracker.getFirstSlot() < 0 || tracker.getFirstSlot() + tracker.getSlotCount() > 64)
+            throw new IllegalArgumentException("slot ids must be between 0 and 63");
+        this.tracker = tracker;
+    }
+
+    /**
+     * Re-evaluates the dirty slots except those in {@code skipMask}, which stay dirty, and returns the
+     * number of queued throws.
+     */
+    public int plan(RuleTable rules, SlotSelector.SlotView view, long skipMask) {
+        rules.getQuotas().refresh(tracker, view);
+        long dirty = tracker.getDirtyMask() << tracker.getFirstSlot();
+        queued &= ~dirty;
+        if (dirty == 0) return size();
+
+        long pending = dirty & ~skipMask;
+        while (pending != 0) {
+            int slotId = Long.numberOfTrailingZeros(pending);
+            pending &= pending - 1;
+
+            int rawId = view.rawItemId(slotId);
+            if (rawId >= 0 && rules.shouldThrow(SlotSelector.toVanillaSlot(slotId), rawId, view, slotId)) {
+                queued |= 1L << slotId;
+                plannedItems[slotId] = rawId;
+            }
+            tracker.clearSlot(slotId);
+        }
+        return size();
+    }
+
+    /**
+     * Removes and returns the next queued slot that still holds the item it was planned for, or -1.
+     */
+    public int poll(SlotSelector.SlotView view) {
+        while (queued != 0) {
+            int slotId = Long.numberOfTrailingZeros(queued);
+            queued &= queued - 1;
+            if (view.rawItemId(slotId) == plannedItems[slotId]) return slotId;
+            tracker.markSlot(slotId);
+        }
+        return -1;
+    }
+
+    public void clear() {
+        queued = 0;
+    }
+
+    public boolean isEmpty() {
+        return queued == 0;
+    }
+
+    public int size() {
+        return Long.bitCount(queued);
+    }
+
+    public long getQueuedMask() {
+        return queued;
+    }
+}
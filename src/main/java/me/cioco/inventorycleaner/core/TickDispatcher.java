@@ -0,0 +1,147 @@
+package me.cioco.inventorycleaner.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Runs the mod's per-tick work from a single client tick listener, in registration order.
+ * <p>
+ * Every task has a nanosecond budget. Time spent beyond it becomes debt that the task pays off by sitting out
+ * later ticks, one budget per tick. Deferrable tasks also sit out ticks while the client is under pressure:
+ * the game's own tick ran long, or the ticks have fallen behind their 50 ms schedule by more than a lag spike.
+ * Lag is the time between ticks beyond the schedule, summed over ticks, so the back to back ticks a low frame
+ * rate client runs to catch up pay it off instead of counting as pressure. Pressure is held for a short while
+ * after the last sign of it.
+ * A task that has been deferred for {@code maxDeferTicks} runs regardless; a limit of zero never defers.
+ */
+public class TickDispatcher<C> {
+
+    private static final long PRESSURE_WORK_NANOS = 25_000_000L;
+    private static final long TICK_NANOS = 50_000_000L;
+    private static final long LAG_NANOS = 100_000_000L;
+    private static final long MAX_LAG_NANOS = 10 * TICK_NANOS;
+    private static final int PRESSURE_HOLD_TICKS = 10;
+
+    private final List<Task<C>> tasks = new ArrayList<>();
+    private long tickStart = -1;
+    private long lastTickEnd = -1;
+    private long lagNanos = 0;
+    private int pressureHold = 0;
+    private long ticks = 0;
+    private long pressureTicks = 0;
+
+    public Task<C> register(String name, long budgetNanos, int maxDeferTicks, Consumer<C> action) {
+        Task<C> task = new Task<>(name, budgetNanos, maxDeferTicks, action);
+        tasks.add(task);
+        return task;
+    }
+
+    public void onTickStart(long now) {
+        tickStart = now;
+    }
+
+    public void onTickEnd(C context, long now) {
+        long work = tickStart < 0 ? 0 : now - tickStart;
+        if (lastTickEnd >= 0)
+            lagNanos = Math.max(0, Math.min(MAX_LAG_NANOS, lagNanos + now - lastTickEnd - TICK_NANOS));
+        lastTickEnd = now;
+        tickStart = -1;
+
+        boolean pressure = work > PRESSURE_WORK_NANOS || lagNanos > LAG_NANOS;
+        if (pressure) pressureHold = PRESSURE_HOLD_TICKS;
+        else if (pressureHold > 0) pressureHold--;
+
+        ticks++;
+        if (pressureHold > 0) pressureTicks++;
+        for (int i = 0; i < tasks.size(); i++) tasks.get(i).tick(context, pressureHold > 0);
+    }
+
+    public boolean isUnderPressure() {
+        return pressureHold > 0;
+    }
+
+    public double getPressureRatio() {
+        return ticks == 0 ? 0 : (double) pressureTicks / ticks;
+    }
+
+    public List<Task<C>> getTasks() {
+        return Collections.unmodifiableList(tasks);
+    }
+
+    /**
+     * One scheduled subsystem and its budget statistics.
+     */
+    public static final class Task<C> {
+
+        private final String name;
+        private final long budgetNanos;
+        private final int maxDeferTicks;
+        private final Consumer<C> action;
+        private long debtNanos = 0;
+        private int deferredTicks = 0;
+        private long runs = 0;
+        private long overruns = 0;
+        private long deferrals = 0;
+        private long lastNanos = 0;
+        private long maxNanos = 0;
+
+        private Task(String name, long budgetNanos, int maxDeferTicks, Consumer<C> action) {
+            this.name = name;
+            this.budgetNanos = budgetNanos;
+            this.maxDeferTicks = Math.max(0, maxDeferTicks);
+            this.action = action;
+        }
+
+        private void tick(C context, boolean pressure) {
+            if (deferredTicks < maxDeferTicks && (debtNanos > 0 || pressure)) {
+                debtNanos = Math.max(0, debtNanos - budgetNanos);
+                deferredTicks++;
+                deferrals++;
+                return;
+            }
+
+            long start = System.nanoTime();
+            action.accept(context);
+            long elapsed = System.nanoTime() - start;
+
+            deferredTicks = 0;
+            runs++;
+            lastNanos = elapsed;
+            maxNanos = Math.max(maxNanos, elapsed);
+            if (elapsed > budgetNanos) {
+                overruns++;
+                debtNanos = Math.min(debtNanos + elapsed - budgetNanos, budgetNanos * maxDeferTicks);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getBudgetNanos() {
+            return budgetNanos;
+        }
+
+        public long getRuns() {
+            return runs;
+        }
+
+        public long getOverruns() {
+            return overruns;
+        }
+
+        public long getDeferrals() {
+            return deferrals;
+        }
+
+        public long getLastNanos() {
+            return lastNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+    }
+}
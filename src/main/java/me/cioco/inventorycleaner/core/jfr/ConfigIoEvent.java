@@ -0,0 +1,33 @@
+package me.cioco.inventorycleaner.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A profile save, export or load on the client thread. The file itself is written later by the
+ * config writer, see {@link ConfigWriteEvent}.
+ */
+@Name("inventorycleaner.ConfigIO")
+@Label("Config I/O")
+@Category({"InventoryCleaner", "Config"})
+@StackTrace(false)
+public class ConfigIoEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Profile")
+    public String profile;
+
+    @Label("Binary")
+    public boolean binary;
+
+    @Label("Items")
+    public int items;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,28 @@
+package me.cioco.inventorycleaner.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One atomic config file write performed by the background writer.
+ */
+@Name("inventorycleaner.ConfigWrite")
+@Label("Config Write")
+@Category({"InventoryCleaner", "Config"})
+@StackTrace(false)
+public class ConfigWriteEvent extends Event {
+
+    @Label("Path")
+    public String path;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytes;
+
+    @Label("Coalesced Batch Size")
+    public int batchSize;
+}
@@ -0,0 +1,29 @@
+package me.cioco.inventorycleaner.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Building the widgets of one config screen tab. Tabs are built once and kept until the screen is resized.
+ */
+@Name("inventorycleaner.ScreenRebuild")
+@Label("Screen Rebuild")
+@Category({"InventoryCleaner", "GUI"})
+@StackTrace(false)
+public class ScreenRebuildEvent extends Event {
+
+    @Label("Tab")
+    public String tab;
+
+    @Label("Widgets")
+    public int widgets;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+}
@@ -0,0 +1,43 @@
+package me.cioco.inventorycleaner.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One pass of the slot selector over the dirty slots of the player inventory.
+ */
+@Name("inventorycleaner.SlotScan")
+@Label("Slot Scan")
+@Category({"InventoryCleaner", "Cleaner"})
+@Description("Evaluation of the dirty inventory slots against the compiled rules")
+@StackTrace(false)
+public class SlotScanEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(SlotScanEvent.class);
+
+    @Label("Source")
+    @Description("tick for the per-tick decision, followUp for the check after a throw")
+    public String source;
+
+    @Label("Dirty Slots")
+    public int dirtySlots;
+
+    @Label("Remaining Dirty Slots")
+    public int remainingDirtySlots;
+
+    @Label("Selected Slot")
+    @Description("Handler slot chosen to throw, or -1 if nothing was throwable")
+    public int selectedSlot;
+
+    /**
+     * Whether a recording has this event enabled; checked before allocating one on the tick path.
+     */
+    public static boolean isRecording() {
+        return TYPE.isEnabled();
+    }
+}
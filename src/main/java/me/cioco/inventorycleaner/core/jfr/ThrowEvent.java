@@ -0,0 +1,39 @@
+package me.cioco.inventorycleaner.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A throw click sent for one slot.
+ */
+@Name("inventorycleaner.Throw")
+@Label("Throw")
+@Category({"InventoryCleaner", "Cleaner"})
+@StackTrace(false)
+public class ThrowEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(ThrowEvent.class);
+
+    @Label("Slot")
+    public int slot;
+
+    @Label("Item")
+    public String item;
+
+    @Label("Count")
+    public int count;
+
+    @Label("Opened Inventory")
+    public boolean openedInventory;
+
+    /**
+     * Whether a recording has this event enabled; checked before allocating one on the tick path.
+     */
+    public static boolean isRecording() {
+        return TYPE.isEnabled();
+    }
+}
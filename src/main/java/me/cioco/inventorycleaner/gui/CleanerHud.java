@@ -0,0 +1,100 @@
+package me.cioco.inventorycleaner.gui;
+
+import me.cioco.inventorycleaner.config.InventoryCleaner;
+import me.cioco.inventorycleaner.core.AdaptiveThrowLimiter;
+import me.cioco.inventorycleaner.core.CleanerTelemetry;
+import me.cioco.inventorycleaner.core.LatencyHistogram;
+import me.cioco.inventorycleaner.core.TickDispatcher;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.font.TextRenderer;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.render.RenderTickCounter;
+
+import java.util.Locale;
+
+/**
+ * Telemetry overlay for tuning the cleaner in game. Lines are rebuilt a few times per second on the
+ * client tick, so rendering only draws cached strings.
+ */
+public class CleanerHud {
+
+    private static final int REFRESH_TICKS = 5;
+    private static final int PADDING = 4;
+    private static final int LINE_HEIGHT = 10;
+    private static final int BACKGROUND = 0x90000000;
+    private static final int TITLE_COLOR = 0xFFFF4444;
+    private static final int TEXT_COLOR = 0xFFDDDDDD;
+
+    public static boolean visible = false;
+
+    private final InventoryCleaner config;
+    private final TickDispatcher<MinecraftClient> dispatcher;
+    private final LatencyHistogram scratch = new LatencyHistogram();
+    private final String[] lines = new String[10];
+    private int refreshCountdown = 0;
+    private int width = 0;
+
+    public CleanerHud(InventoryCleaner config, TickDispatcher<MinecraftClient> dispatcher) {
+        this.config = config;
+        this.dispatcher = dispatcher;
+    }
+
+    public void tick(MinecraftClient client) {
+        if (!visible || --refreshCountdown > 0) return;
+        refreshCountdown = REFRESH_TICKS;
+
+        CleanerTelemetry telemetry = InventoryCleaner.getTelemetry();
+        AdaptiveThrowLimiter limiter = InventoryCleaner.getThrowLimiter();
+        lines[0] = "InventoryCleaner " + (InventoryCleaner.toggled ? "ON" : "OFF")
+                + " | delay " + (config.isAdaptiveThrottle() ? limiter.getDelayTicks() + "t adaptive" : config.getThrowDelayTicks() + "t");
+
+        telemetry.scanNanos(scratch);
+        lines[1] = String.format(Locale.ROOT, "Scan p50/p99/max: %.1f / %.1f / %.1f us (%d)",
+                scratch.valueAtPercentile(50) / 1e3, scratch.valueAtPercentile(99) / 1e3,
+                scratch.getMax() / 1e3, scratch.getCount());
+
+        lines[2] = String.format(Locale.ROOT, "Throws/s: %.2f", telemetry.getThrowsPerSecond());
+
+        telemetry.pickupToThrowNanos(scratch);
+        lines[3] = String.format(Locale.ROOT, "Pickup to throw p50/p99: %.0f / %.0f ms",
+                scratch.valueAtPercentile(50) / 1e6, scratch.valueAtPercentile(99) / 1e6);
+
+        lines[4] = String.format(Locale.ROOT, "Idle ticks: %.1f%%", telemetry.getIdleTickRatio() * 100);
+        lines[5] = "Pending writes: " + config.getPendingWrites();
+
+        long ack = telemetry.getLastAckNanos();
+        telemetry.ackNanos(scratch);
+        lines[6] = ack < 0 ? "Last ack: -" : String.format(Locale.ROOT, "Last ack: %.0f ms (p99 %.0f ms)",
+                ack / 1e6, scratch.valueAtPercentile(99) / 1e6);
+
+        long srtt = limiter.getSmoothedRttNanos();
+        lines[7] = String.format(Locale.ROOT, "Window %.1f (%d out) | srtt %s | rejected %d, corrected %d",
+                limiter.getWindow(), limiter.getOutstanding(), srtt < 0 ? "-" : String.format(Locale.ROOT, "%.0f ms", srtt / 1e6),
+                limiter.getRejections(), limiter.getCorrections());
+
+        StringBuilder budgets = new StringBuilder("Over/deferred:");
+        StringBuilder peaks = new StringBuilder(String.format(Locale.ROOT, "Pressure %.1f%% | max", dispatcher.getPressureRatio() * 100));
+        for (TickDispatcher.Task<MinecraftClient> task : dispatcher.getTasks()) {
+            budgets.append(' ').append(task.getName()).append(' ').append(task.getOverruns()).append('/').append(task.getDeferrals());
+            peaks.append(String.format(Locale.ROOT, " %s %.2f", task.getName(), task.getMaxNanos() / 1e6));
+        }
+        lines[8] = peaks.append(" ms").toString();
+        lines[9] = budgets.toString();
+
+        TextRenderer textRenderer = client.textRenderer;
+        width = 0;
+        for (String line : lines) width = Math.max(width, textRenderer.getWidth(line));
+    }
+
+    public void render(DrawContext context, RenderTickCounter tickCounter) {
+        if (!visible || lines[0] == null) return;
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client.getDebugHud().shouldShowDebugHud()) return;
+
+        int x = PADDING;
+        int y = PADDING;
+        context.fill(x - 2, y - 2, x + width + 2, y + lines.length * LINE_HEIGHT, BACKGROUND);
+        for (int i = 0; i < lines.length; i++)
+            context.drawTextWithShadow(client.textRenderer, lines[i], x, y + i * LINE_HEIGHT, i == 0 ? TITLE_COLOR : TEXT_COLOR);
+    }
+}
@@ -1,6 +1,12 @@
 package me.cioco.inventorycleaner.gui;
 
 import me.cioco.inventorycleaner.config.InventoryCleaner;
+import me.cioco.inventorycleaner.core.ConfigChanges;
+import me.cioco.inventorycleaner.core.ItemQuota;
+import me.cioco.inventorycleaner.core.ItemSearchIndex;
+import me.cioco.inventorycleaner.core.ProfileRepository;
+import me.cioco.inventorycleaner.core.ThrowLog;
+import me.cioco.inventorycleaner.core.jfr.ScreenRebuildEvent;
 import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.gui.screen.Screen;
 import net.minecraft.client.gui.screen.narration.NarrationMessageBuilder;
@@ -18,11 +24,19 @@ import net.minecraft.util.Formatting;
 import net.minecraft.util.Identifier;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class InventoryCleanerScreen extends Screen {
@@ -44,6 +58,9 @@ public class InventoryCleanerScreen extends Screen {
     private static final int SLOT_ACTIVE_ITEM = 0xCC4444AA;
     private static final int SLOT_ACTIVE_LOCK = 0xCCAA8800;
 
+    private static final int VIEW_TOP = 58;
+    private static final int VIEW_BOTTOM_MARGIN = 32;
+
     private static final int LIST_ROW_H = 18;
     private static final int LIST_ICON_SZ = 17;
 
@@ -51,20 +68,43 @@ public class InventoryCleanerScreen extends Screen {
     private static final int TAB_ITEMS = 1;
     private static final int TAB_LOCKS = 2;
     private static final int TAB_PROFILES = 3;
+    private static final int TAB_STATS = 4;
+    private static final String[] TAB_NAMES = {"settings", "items", "locks", "profiles", "stats"};
+    private static final String[] TAB_LABELS = {"Settings", "Item List", "Locked Slots", "Profiles", "Stats"};
+    private static final int STATS_TOP_ITEMS = 10;
+    private static final int STATS_SESSIONS = 5;
+
+    private static final DateTimeFormatter PROFILE_DATE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
 
     private static final int MAX_VISIBLE_SUGGESTIONS = 5;
+    private static final int MAX_SUGGESTIONS = 40;
+    private static ItemSearchIndex searchIndex;
+    private static int searchIndexedItems;
     private static final int SUGGESTION_H = 12;
     private final Screen parent;
     private final InventoryCleaner config;
-    private final List<ClickableWidget> scrollableWidgets = new ArrayList<>();
+    private final TabContent[] tabs = new TabContent[TAB_NAMES.length];
+    private int pendingChanges = 0;
+    private final IntConsumer changeListener = changes -> pendingChanges |= changes;
+    private List<ClickableWidget> scrollableWidgets = new ArrayList<>();
+    private VirtualList itemRows, lockRows, profileRows;
+    private int listX, itemRowsY, lockRowsY, profileRowsY;
+    private ClickableWidget itemCountLabel, itemsEmptyLabel, lockCountLabel, locksEmptyLabel;
+    private List<ClickableWidget> lockSection = List.of();
+    private ClickableWidget profileCountLabel, activeProfileLabel, profilesEmptyLabel;
+    private ButtonWidget[] profileRowPool;
+    private int[] profileRowIndex;
     private final List<String> suggestions = new ArrayList<>();
+    private final SuggestionDropdownModel dropdownModel = new SuggestionDropdownModel();
     private int suggestionScroll = 0;
     private int currentTab = TAB_SETTINGS;
     private int scrollOffset = 0;
     private int maxScroll = 0;
     private int contentHeight = 0;
 
-    private ButtonWidget tabSettings, tabItems, tabLocks, tabProfiles, doneButton;
+    private final ButtonWidget[] tabButtons = new ButtonWidget[TAB_NAMES.length];
+    private ButtonWidget doneButton;
     private int gridOriginX, gridOriginY;
     private String hoverTooltip = null;
 
@@ -75,6 +115,11 @@ public class InventoryCleanerScreen extends Screen {
     private TextFieldWidget profileNameField;
     private String profileFeedback = "";
     private int profileFeedbackTimer = 0;
+    private int shownProfilesVersion = -1;
+    private List<ProfileRepository.Entry> shownProfiles = List.of();
+
+    private CompletableFuture<ThrowLog.Summary> statsFuture;
+    private boolean statsShown = false;
 
     public InventoryCleanerScreen(Screen parent, InventoryCleaner config) {
         super(Text.literal("Inventory Cleaner"));
@@ -82,21 +127,28 @@ public class InventoryCleanerScreen extends Screen {
         this.config = config;
     }
 
+    /**
+     * Lays out the screen for its current size. Tab content is built the first time each tab is shown and kept
+     * across tab switches; config edits only refresh the rows and controls bound to the changed part.
+     */
     @Override
     protected void init() {
         clearChildren();
-        scrollableWidgets.clear();
+        config.removeChangeListener(changeListener);
+        config.addChangeListener(changeListener);
+        pendingChanges = 0;
+        for (int i = 0; i < tabs.length; i++) tabs[i] = new TabContent();
+        tabs[currentTab].scrollOffset = scrollOffset;
+        itemRows = lockRows = profileRows = null;
         itemSearchField = null;
         profileNameField = null;
-        suggestions.clear();
+        clearSuggestions();
         suggestionScroll = 0;
 
         int cx = width / 2;
 
-        tabSettings = addTabButton("Settings", TAB_SETTINGS, cx - 205, 36, 95, 20);
-        tabItems = addTabButton("Item List", TAB_ITEMS, cx - 105, 36, 95, 20);
-        tabLocks = addTabButton("Locked Slots", TAB_LOCKS, cx - 5, 36, 95, 20);
-        tabProfiles = addTabButton("Profiles", TAB_PROFILES, cx + 95, 36, 95, 20);
+        for (int i = 0; i < tabButtons.length; i++)
+            tabButtons[i] = addTabButton(TAB_LABELS[i], i, cx - 205 + i * 82, 36, 78, 20);
 
         doneButton = ButtonWidget.builder(
                 Text.literal("SAVE & CLOSE").formatted(Formatting.RED, Formatting.BOLD),
@@ -107,9 +159,93 @@ public class InventoryCleanerScreen extends Screen {
         gridOriginX = cx - (SLOT_COLS * SLOT_SIZE) / 2;
         gridOriginY = 70;
 
+        openTab(currentTab);
+    }
+
+    @Override
+    public void removed() {
+        config.removeChangeListener(changeListener);
+    }
+
+    private void switchTab(int tab) {
+        if (tab == currentTab) return;
+        TabContent content = tabs[currentTab];
+        content.scrollOffset = scrollOffset;
+        content.maxScroll = maxScroll;
+        content.contentHeight = contentHeight;
+        for (ClickableWidget w : content.widgets) remove(w);
+        setFocused(null);
+        openTab(tab);
+    }
+
+    private void openTab(int tab) {
+        currentTab = tab;
+        for (int i = 0; i < tabButtons.length; i++) tabButtons[i].setMessage(tabText(TAB_LABELS[i], i));
+        TabContent content = tabs[tab];
+        scrollableWidgets = content.scrollable;
+        scrollOffset = content.scrollOffset;
+        maxScroll = content.maxScroll;
+        contentHeight = content.contentHeight;
+        if (!content.built) {
+            buildTab(content);
+            return;
+        }
+        for (ClickableWidget w : content.widgets) addDrawableChild(w);
+        int stale = content.staleChanges;
+        content.staleChanges = 0;
+        refresh(content, stale);
+    }
+
+    /**
+     * Drops a tab's widgets so it is built again; right away if it is showing, otherwise when it is next opened.
+     */
+    private void rebuildTab(int tab) {
+        TabContent old = tabs[tab];
+        tabs[tab] = new TabContent();
+        if (tab != currentTab) return;
+        for (ClickableWidget w : old.widgets) remove(w);
+        setFocused(null);
+        tabs[tab].scrollOffset = scrollOffset;
+        openTab(tab);
+    }
+
+    private void buildTab(TabContent content) {
+        ScreenRebuildEvent event = new ScreenRebuildEvent();
+        event.begin();
+        content.built = true;
+
         if (currentTab == TAB_SETTINGS) initSettings();
         else if (currentTab == TAB_ITEMS) initItemList();
         else if (currentTab == TAB_PROFILES) initProfiles();
+        else if (currentTab == TAB_STATS) initStats();
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.tab = TAB_NAMES[currentTab];
+            event.widgets = content.widgets.size();
+            event.width = width;
+            event.height = height;
+            event.commit();
+        }
+    }
+
+    private void applyChanges() {
+        if (pendingChanges == 0) return;
+        int changes = pendingChanges;
+        pendingChanges = 0;
+        for (int i = 0; i < tabs.length; i++)
+            if (i != currentTab) tabs[i].staleChanges |= changes;
+        refresh(tabs[currentTab], changes);
+    }
+
+    private void refresh(TabContent content, int changes) {
+        if (changes == 0) return;
+        for (ModelBinding binding : content.bindings)
+            if ((binding.changes() & changes) != 0) binding.refresh().run();
+    }
+
+    private void onChange(int changes, Runnable refresh) {
+        tabs[currentTab].bindings.add(new ModelBinding(changes, refresh));
     }
 
     private void initSettings() {
@@ -121,14 +257,13 @@ public class InventoryCleanerScreen extends Screen {
         addToggle(leftCol, y,
                 "Cleaning Mode",
                 "Blacklist drops listed items. Whitelist keeps listed items.",
-                config.getMode() == InventoryCleaner.CleaningMode.WHITELIST,
+                () -> config.getMode() == InventoryCleaner.CleaningMode.WHITELIST,
                 v -> {
                     config.setMode(v ? InventoryCleaner.CleaningMode.WHITELIST : InventoryCleaner.CleaningMode.BLACKLIST);
                     config.saveConfiguration();
                 });
 
-        float delaySeconds = config.getThrowDelayTicks() / 20.0f;
-        addSlider(rightCol, y, "Drop Delay", delaySeconds, 0.05f, 2.0f, v -> {
+        addSlider(rightCol, y, "Drop Delay", () -> config.getThrowDelayTicks() / 20.0f, 0.05f, 2.0f, v -> {
             config.setThrowDelayTicks(Math.max(1, (int) (v * 20f)));
             config.saveConfiguration();
         });
@@ -137,121 +272,195 @@ public class InventoryCleanerScreen extends Screen {
 
         addToggle(leftCol, y,
                 "Inventory Open",
-                "When enabled, it will automatically open the inventory throw then close.",
-                config.isInventoryOpenOnly(),
+                "Open the inventory screen while throwing, for servers that reject clicks without it. When off, items are thrown in the background.",
+                config::isInventoryOpenOnly,
                 v -> {
                     config.setInventoryOpenOnly(v);
                     config.saveConfiguration();
                 });
 
+        addToggle(rightCol, y,
+                "Binary Profiles",
+                "Store profiles in the compact binary format. Existing .properties profiles are migrated when loaded.",
+                config::isBinaryProfiles,
+                v -> {
+                    config.setBinaryProfiles(v);
+                    config.saveConfiguration();
+                });
+
+        y += SPACING_Y;
+
+        addToggle(leftCol, y,
+                "Adaptive Delay",
+                "Pace throws by server acknowledgements instead of the fixed Drop Delay, backing off when the server rejects them.",
+                config::isAdaptiveThrottle,
+                v -> {
+                    config.setAdaptiveThrottle(v);
+                    config.saveConfiguration();
+                });
+
+        addSlider(rightCol, y, "Min Delay", () -> config.getMinThrowDelayTicks() / 20.0f, 0.05f, 1.0f, v -> {
+            config.setMinThrowDelayTicks(Math.max(1, (int) (v * 20f)));
+            config.saveConfiguration();
+        });
+
+        y += SPACING_Y;
+
+        addSlider(leftCol, y, "Throws per Tick", "%.0f", () -> (float) config.getThrowsPerTick(), 1f, 9f, v -> {
+            config.setThrowsPerTick(Math.round(v));
+            config.saveConfiguration();
+        });
+
+        addToggle(rightCol, y,
+                "Clean Containers",
+                "Also throw items on the container list (entered as @item or @#tag) out of open chests, shulkers and modded storage.",
+                config::isContainerCleaning,
+                v -> {
+                    config.setContainerCleaning(v);
+                    config.saveConfiguration();
+                });
+
         y += SPACING_Y + SECTION_MARGIN;
 
-        addLabel(leftCol, y, "Items in List: §c" + config.getItemsToThrow().size());
+        listX = leftCol;
+        itemCountLabel = addLabel(leftCol, y, itemCountText());
         addScrollable(ButtonWidget.builder(
                 Text.literal("WIPE ITEM LIST").formatted(Formatting.RED),
                 b -> {
-                    config.getItemsToThrow().clear();
+                    config.clearItems();
                     config.saveConfiguration();
-                    init();
                 }
         ).dimensions(cx + 5, y, 150, 20).build());
 
         y += SPACING_Y;
 
-        List<Item> items = new ArrayList<>(config.getItemsToThrow());
-        if (items.isEmpty()) {
-            addLabel(leftCol + 4, y, "§8  (none)");
-            y += LIST_ROW_H;
-        } else {
-            for (int i = 0; i < items.size(); i++) {
-                final Item rowItem = items.get(i);
-                final int rowIdx = i;
-                final int rowY = y;
-                String name = rowItem.getName().getString();
-                String regPath = Registries.ITEM.getId(rowItem).getPath();
-
-                ClickableWidget row = new ClickableWidget(leftCol, rowY, 300, LIST_ROW_H,
-                        Text.literal("§f" + name + " §8(" + regPath + ")")) {
-                    @Override
-                    protected void renderWidget(DrawContext ctx, int mx, int my, float delta) {
-                        if (rowIdx % 2 == 0)
-                            ctx.fill(getX(), getY(), getX() + getWidth(), getY() + getHeight(), 0x20FF4444);
-                        ctx.drawItem(new ItemStack(rowItem), getX() + 1, getY() + 1);
-                        ctx.drawTextWithShadow(textRenderer, getMessage(),
-                                getX() + LIST_ICON_SZ + 3, getY() + 5, 0xFFDDDDDD);
-                    }
-
-                    @Override
-                    protected void appendClickableNarrations(NarrationMessageBuilder b) {
-                    }
-                };
-                addScrollable(row);
-                y += LIST_ROW_H;
-            }
-        }
+        itemRowsY = y;
+        itemRows = itemList();
+        itemsEmptyLabel = addLabel(leftCol + 4, y, "§8  (none)");
+        itemsEmptyLabel.visible = itemRows.size() == 0;
+        y += listHeight(itemRows);
 
         y += SECTION_MARGIN;
 
-        addLabel(leftCol, y, "Locked Slots: §c" + config.getLockedSlots().size());
-        addScrollable(ButtonWidget.builder(
+        lockCountLabel = addLabel(leftCol, y, lockCountText());
+        ButtonWidget unlockButton = ButtonWidget.builder(
                 Text.literal("UNLOCK ALL SLOTS").formatted(Formatting.GOLD),
                 b -> {
-                    config.getLockedSlots().clear();
+                    config.clearLockedSlots();
                     config.saveConfiguration();
-                    init();
                 }
-        ).dimensions(cx + 5, y, 150, 20).build());
+        ).dimensions(cx + 5, y, 150, 20).build();
+        addScrollable(unlockButton);
 
         y += SPACING_Y;
 
-        List<Integer> lockedSlots = new ArrayList<>(config.getLockedSlots());
-        lockedSlots.sort(Integer::compareTo);
+        lockRowsY = y;
+        lockRows = lockList();
+        locksEmptyLabel = addLabel(leftCol + 4, y, "§8  (none)");
+        locksEmptyLabel.visible = lockRows.size() == 0;
+        y += listHeight(lockRows);
+        lockSection = List.of(lockCountLabel, unlockButton, locksEmptyLabel);
 
-        if (lockedSlots.isEmpty()) {
-            addLabel(leftCol + 4, y, "§8  (none)");
-            y += LIST_ROW_H;
-        } else {
-            for (int i = 0; i < lockedSlots.size(); i++) {
-                int slot = lockedSlots.get(i);
-                int rowIdx = i;
-                int rowY = y;
-                String loc;
-                if (slot < 9) {
-                    loc = "§eHotbar slot " + slot;
-                } else {
-                    int row2 = (slot - 9) / 9;
-                    int col2 = (slot - 9) % 9;
-                    loc = "§bRow " + (row2 + 1) + ", Col " + (col2 + 1) + " §8(slot " + slot + ")";
-                }
-                final String display = loc;
-
-                ClickableWidget row = new ClickableWidget(leftCol, rowY, 300, LIST_ROW_H,
-                        Text.literal(display)) {
-                    @Override
-                    protected void renderWidget(DrawContext ctx, int mx, int my, float delta) {
-                        if (rowIdx % 2 == 0)
-                            ctx.fill(getX(), getY(), getX() + getWidth(), getY() + getHeight(), 0x20FFAA00);
-                        ctx.fill(getX() + 1, getY() + 2,
-                                getX() + 9, getY() + getHeight() - 2, SLOT_ACTIVE_LOCK);
-                        ctx.drawTextWithShadow(textRenderer, getMessage(),
-                                getX() + LIST_ICON_SZ + 3, getY() + 2, 0xFFDDDDDD);
-                    }
+        y += SECTION_MARGIN;
 
-                    @Override
-                    protected void appendClickableNarrations(NarrationMessageBuilder b) {
-                    }
-                };
-                addScrollable(row);
-                y += LIST_ROW_H;
+        onChange(ConfigChanges.ITEMS, this::refreshItemRows);
+        onChange(ConfigChanges.LOCKS, this::refreshLockRows);
+        finishLayout(y + 40);
+    }
+
+    private String itemCountText() {
+        return "Items in List: §c" + listEntryCount();
+    }
+
+    private String lockCountText() {
+        return "Locked Slots: §c" + config.getLockedSlots().size();
+    }
+
+    private static int listHeight(VirtualList rows) {
+        return Math.max(LIST_ROW_H, rows.getHeight());
+    }
+
+    private VirtualList itemList() {
+        List<Item> items = new ArrayList<>(config.getItemsToThrow());
+        List<String> tags = new ArrayList<>(config.getItemTags());
+        List<ItemQuota> quotas = config.getQuotas();
+        List<String> containerItems = new ArrayList<>(config.getContainerItems());
+        int rows = items.size() + tags.size() + quotas.size() + containerItems.size();
+        String[] labels = new String[rows];
+        ItemStack[] stacks = new ItemStack[rows];
+        return new VirtualList(listX, itemRowsY, 300, LIST_ROW_H, rows, (ctx, i, x, rowY, w) -> {
+            if (stacks[i] == null && i < items.size()) {
+                Item item = items.get(i);
+                stacks[i] = new ItemStack(item);
+                labels[i] = "§f" + item.getName().getString() + " §8(" + Registries.ITEM.getId(item).getPath() + ")";
+            } else if (stacks[i] == null && i < items.size() + tags.size()) {
+                String tag = tags.get(i - items.size());
+                stacks[i] = new ItemStack(Items.NAME_TAG);
+                labels[i] = "§6#" + tag + " §8(" + config.getTagSize(tag) + " items)";
+            } else if (stacks[i] == null && i < items.size() + tags.size() + quotas.size()) {
+                ItemQuota quota = quotas.get(i - items.size() - tags.size());
+                Identifier id = quota.isTag() ? null : Identifier.tryParse(quota.target());
+                stacks[i] = id != null && Registries.ITEM.containsId(id)
+                        ? new ItemStack(Registries.ITEM.get(id)) : new ItemStack(Items.CHEST);
+                labels[i] = "§b" + quota.target() + " §7keep " + quota.limit();
+            } else if (stacks[i] == null) {
+                String target = containerItems.get(i - items.size() - tags.size() - quotas.size());
+                Identifier id = target.startsWith("#") ? null : Identifier.tryParse(target);
+                stacks[i] = id != null && Registries.ITEM.containsId(id)
+                        ? new ItemStack(Registries.ITEM.get(id)) : new ItemStack(Items.CHEST);
+                labels[i] = "§d@" + target + " §8(containers)";
             }
-        }
+            if (i % 2 == 0)
+                ctx.fill(x, rowY, x + w, rowY + LIST_ROW_H, 0x20FF4444);
+            ctx.drawItem(stacks[i], x + 1, rowY + 1);
+            ctx.drawTextWithShadow(textRenderer, labels[i], x + LIST_ICON_SZ + 3, rowY + 5, 0xFFDDDDDD);
+        });
+    }
 
-        y += SECTION_MARGIN;
+    private VirtualList lockList() {
+        long lockedMask = config.getRules().getLockedSlotMask();
+        int[] slots = new int[Long.bitCount(lockedMask)];
+        for (int i = 0; lockedMask != 0; lockedMask &= lockedMask - 1)
+            slots[i++] = Long.numberOfTrailingZeros(lockedMask);
+        String[] labels = new String[slots.length];
+        return new VirtualList(listX, lockRowsY, 300, LIST_ROW_H, slots.length, (ctx, i, x, rowY, w) -> {
+            if (labels[i] == null) labels[i] = lockedSlotLabel(slots[i]);
+            if (i % 2 == 0)
+                ctx.fill(x, rowY, x + w, rowY + LIST_ROW_H, 0x20FFAA00);
+            ctx.fill(x + 1, rowY + 2, x + 9, rowY + LIST_ROW_H - 2, SLOT_ACTIVE_LOCK);
+            ctx.drawTextWithShadow(textRenderer, labels[i], x + LIST_ICON_SZ + 3, rowY + 2, 0xFFDDDDDD);
+        });
+    }
 
-        contentHeight = y + 40;
-        maxScroll = Math.max(0, contentHeight - (height - 90));
-        scrollOffset = Math.min(scrollOffset, maxScroll);
-        applyScrollOffset();
+    /**
+     * Swaps in the new item rows and moves the protection section below them by the change in list height.
+     */
+    private void refreshItemRows() {
+        itemCountLabel.setMessage(Text.literal(itemCountText()));
+        int oldHeight = listHeight(itemRows);
+        itemRows = itemList();
+        itemsEmptyLabel.visible = itemRows.size() == 0;
+        int shift = listHeight(itemRows) - oldHeight;
+        if (shift == 0) return;
+        for (ClickableWidget w : lockSection) w.setY(w.getY() + shift);
+        lockRowsY += shift;
+        lockRows = lockList();
+        setContentHeight(contentHeight + shift);
+    }
+
+    private void refreshLockRows() {
+        lockCountLabel.setMessage(Text.literal(lockCountText()));
+        int oldHeight = listHeight(lockRows);
+        lockRows = lockList();
+        locksEmptyLabel.visible = lockRows.size() == 0;
+        setContentHeight(contentHeight + listHeight(lockRows) - oldHeight);
+    }
+
+    private String lockedSlotLabel(int slot) {
+        if (slot < 9) return "§eHotbar slot " + slot;
+        int row = (slot - 9) / 9;
+        int col = (slot - 9) % 9;
+        return "§bRow " + (row + 1) + ", Col " + (col + 1) + " §8(slot " + slot + ")";
     }
 
     private void initItemList() {
@@ -262,22 +471,22 @@ public class InventoryCleanerScreen extends Screen {
                 textRenderer, cx - 110, fieldY, 170, 20,
                 Text.literal("Item ID"));
         itemSearchField.setMaxLength(128);
-        itemSearchField.setSuggestion("e.g. dirt or minecraft:dirt");
+        itemSearchField.setSuggestion("e.g. dirt or #minecraft:flowers");
         itemSearchField.setChangedListener(text -> {
-            if (text.isEmpty()) itemSearchField.setSuggestion("e.g. dirt or minecraft:dirt");
+            if (text.isEmpty()) itemSearchField.setSuggestion("e.g. dirt or #minecraft:flowers");
             else itemSearchField.setSuggestion("");
             updateSuggestions(text.trim());
             suggestionScroll = 0;
         });
-        addDrawableChild(itemSearchField);
+        addTabChild(itemSearchField);
 
-        addDrawableChild(ButtonWidget.builder(
+        addTabChild(ButtonWidget.builder(
                 Text.literal("ADD/Remove").formatted(Formatting.GREEN, Formatting.BOLD),
                 b -> {
                     addItemById(itemSearchField.getText().trim());
                     itemSearchField.setText("");
-                    itemSearchField.setSuggestion("e.g. dirt or minecraft:dirt");
-                    suggestions.clear();
+                    itemSearchField.setSuggestion("e.g. dirt or #minecraft:flowers");
+                    clearSuggestions();
                 }
         ).dimensions(cx + 65, fieldY, 85, 20).build());
     }
@@ -296,98 +505,198 @@ public class InventoryCleanerScreen extends Screen {
             if (t.isEmpty()) profileNameField.setSuggestion("my-profile");
             else profileNameField.setSuggestion("");
         });
-        addDrawableChild(profileNameField);
+        addTabChild(profileNameField);
 
-        addDrawableChild(ButtonWidget.builder(
+        addTabChild(ButtonWidget.builder(
                 Text.literal("SAVE").formatted(Formatting.GREEN, Formatting.BOLD),
                 b -> saveProfile(profileNameField.getText().trim())
         ).dimensions(cx + 15, fieldY, 52, 20).build());
 
-        addDrawableChild(ButtonWidget.builder(
+        addTabChild(ButtonWidget.builder(
                 Text.literal("LOAD").formatted(Formatting.AQUA, Formatting.BOLD),
                 b -> loadProfile(profileNameField.getText().trim())
         ).dimensions(cx + 71, fieldY, 52, 20).build());
 
-        List<String> profiles = listProfiles();
+        addTabChild(ButtonWidget.builder(
+                Text.literal("EXPORT").formatted(Formatting.GOLD, Formatting.BOLD),
+                b -> exportProfile(profileNameField.getText().trim())
+        ).dimensions(cx + 127, fieldY, 52, 20).build());
+
+        shownProfiles = listProfiles();
+        shownProfilesVersion = config.getProfilesVersion();
 
         int y = 70;
-        addLabel(leftCol, y, "§fSaved Profiles: §c" + profiles.size());
+        profileCountLabel = addLabel(leftCol, y, profileCountText());
+        activeProfileLabel = addLabel(cx + 5, y, activeProfileText());
         y += SPACING_Y + 4;
 
-        if (profiles.isEmpty()) {
-            addLabel(leftCol + 4, y, "§8  (no profiles saved yet — type a name below and click SAVE)");
-            y += LIST_ROW_H;
-        } else {
-            for (int i = 0; i < profiles.size(); i++) {
-                final String name = profiles.get(i);
-                final int rowIdx = i;
-                final int rowY = y;
-                final int rowX = leftCol;
-
-                ButtonWidget loadBtn = ButtonWidget.builder(
-                        Text.literal("Load").formatted(Formatting.AQUA),
-                        b -> {
-                            loadProfile(name);
-                            init();
-                        }
-                ).dimensions(rowX, rowY, 42, LIST_ROW_H).build();
-                addScrollable(loadBtn);
-
-                ButtonWidget delBtn = ButtonWidget.builder(
-                        Text.literal("✕").formatted(Formatting.RED),
-                        b -> {
-                            deleteProfile(name);
-                            init();
-                        }
-                ).dimensions(rowX + 45, rowY, 18, LIST_ROW_H).build();
-                addScrollable(delBtn);
-
-                ClickableWidget label = new ClickableWidget(
-                        rowX + 67, rowY, 250, LIST_ROW_H,
-                        Text.literal((rowIdx % 2 == 0 ? "§f" : "§7") + name)) {
-                    @Override
-                    protected void renderWidget(DrawContext ctx, int mx, int my, float delta) {
-                        if (rowIdx % 2 == 0)
-                            ctx.fill(rowX, getY(), rowX + 320, getY() + getHeight(), 0x18FFFFFF);
-                        ctx.drawTextWithShadow(textRenderer, getMessage(),
-                                getX(), getY() + 5, 0xFFDDDDDD);
-                    }
+        addBindButton(leftCol, y, "Bind Server", config::getPlaceKey);
+        addBindButton(cx + 5, y, "Bind Dimension", config::getDimensionKey);
+        y += SPACING_Y + 4;
 
-                    @Override
-                    protected void appendClickableNarrations(NarrationMessageBuilder b) {
-                    }
-                };
-                addScrollable(label);
+        listX = leftCol;
+        profileRowsY = y;
+        profileRows = profileList();
+        profilesEmptyLabel = addLabel(leftCol + 4, y, "§8  (no profiles saved yet — type a name below and click SAVE)");
+        profilesEmptyLabel.visible = shownProfiles.isEmpty();
+
+        int poolSize = VirtualList.capacity(height - VIEW_TOP - VIEW_BOTTOM_MARGIN, LIST_ROW_H + 2);
+        profileRowPool = new ButtonWidget[poolSize * 2];
+        profileRowIndex = new int[poolSize];
+        for (int k = 0; k < poolSize; k++) {
+            final int poolSlot = k;
+            profileRowPool[k * 2] = addTabChild(ButtonWidget.builder(
+                    Text.literal("Load").formatted(Formatting.AQUA),
+                    b -> loadProfile(shownProfiles.get(profileRowIndex[poolSlot]).name())
+            ).dimensions(leftCol, y, 42, LIST_ROW_H).build());
+
+            profileRowPool[k * 2 + 1] = addTabChild(ButtonWidget.builder(
+                    Text.literal("✕").formatted(Formatting.RED),
+                    b -> deleteProfile(shownProfiles.get(profileRowIndex[poolSlot]).name())
+            ).dimensions(leftCol + 45, y, 18, LIST_ROW_H).build());
+        }
+        y += listHeight(profileRows);
+
+        onChange(ConfigChanges.PROFILES | ConfigChanges.BINDINGS, this::refreshProfileRows);
+        onChange(ConfigChanges.ACTIVE_PROFILE, () -> activeProfileLabel.setMessage(Text.literal(activeProfileText())));
+        finishLayout(y + 40);
+    }
+
+    private String profileCountText() {
+        return "§fSaved Profiles: §c" + shownProfiles.size();
+    }
+
+    private String activeProfileText() {
+        return "§7Active: §f" + config.getActiveProfile();
+    }
 
-                y += LIST_ROW_H + 2;
+    private VirtualList profileList() {
+        List<ProfileRepository.Entry> profiles = shownProfiles;
+        String[] labels = new String[profiles.size()];
+        return new VirtualList(listX, profileRowsY, 320, LIST_ROW_H + 2, profiles.size(), (ctx, i, x, rowY, w) -> {
+            if (labels[i] == null) {
+                ProfileRepository.Entry profile = profiles.get(i);
+                labels[i] = (i % 2 == 0 ? "§f" : "§7") + profile.name()
+                        + " §8(" + profile.getItemCount() + " items, " + profile.getSlotCount() + " slots, "
+                        + PROFILE_DATE_FORMAT.format(Instant.ofEpochMilli(profile.lastModified())) + ")";
+                Set<String> keys = config.getBindingKeys(profile.name());
+                if (!keys.isEmpty()) labels[i] += " §d" + String.join(", ", keys);
             }
+            if (i % 2 == 0)
+                ctx.fill(x, rowY, x + w, rowY + LIST_ROW_H, 0x18FFFFFF);
+            ctx.drawTextWithShadow(textRenderer, labels[i], x + 67, rowY + 5, 0xFFDDDDDD);
+        });
+    }
+
+    private void refreshProfileRows() {
+        shownProfiles = listProfiles();
+        shownProfilesVersion = config.getProfilesVersion();
+        profileCountLabel.setMessage(Text.literal(profileCountText()));
+        int oldHeight = listHeight(profileRows);
+        profileRows = profileList();
+        profilesEmptyLabel.visible = shownProfiles.isEmpty();
+        setContentHeight(contentHeight + listHeight(profileRows) - oldHeight);
+    }
+
+    private void initStats() {
+        int cx = width / 2;
+        int leftCol = cx - 155;
+        int rightCol = cx + 5;
+
+        addTabChild(ButtonWidget.builder(
+                Text.literal("REFRESH").formatted(Formatting.AQUA, Formatting.BOLD),
+                b -> {
+                    statsFuture = null;
+                    rebuildTab(TAB_STATS);
+                }
+        ).dimensions(cx - 40, height - 56, 80, 20).build());
+
+        if (statsFuture == null) statsFuture = config.getThrowLog().summarize();
+        statsShown = statsFuture.isDone();
+        int y = 70;
+        if (!statsFuture.isDone()) {
+            addLabel(leftCol, y, "§8Reading throw log...");
+            finishLayout(0);
+            return;
+        }
+        if (statsFuture.isCompletedExceptionally()) {
+            addLabel(leftCol, y, "§cCould not read the throw log");
+            finishLayout(0);
+            return;
         }
 
-        contentHeight = y + 40;
-        maxScroll = Math.max(0, contentHeight - (height - 90));
-        scrollOffset = Math.min(scrollOffset, maxScroll);
-        applyScrollOffset();
+        ThrowLog.Summary stats = statsFuture.join();
+        addLabel(leftCol, y, "§fThrown: §c" + stats.itemCount() + " §7items in §c" + stats.throwCount() + " §7throws");
+        y += SPACING_Y - 6;
+        addLabel(leftCol, y, String.format(Locale.ROOT, "§7Per hour: §f%.1f §7avg, §f%d §7this hour",
+                stats.getThrowsPerHour(), stats.getThrowsInHour(System.currentTimeMillis())));
+        y += SPACING_Y - 6;
+        addLabel(leftCol, y, "§7This session: §f" + stats.sessions().getOrDefault(stats.currentSession(), 0L) + " §7items"
+                + (stats.dropped() > 0 ? " §c(" + stats.dropped() + " not logged)" : ""));
+        y += SPACING_Y + 4;
+
+        int columnsY = y;
+        addLabel(leftCol, y, "§fTop Items");
+        y += LIST_ROW_H;
+        if (stats.items().isEmpty()) {
+            addLabel(leftCol + 4, y, "§8  (nothing thrown yet)");
+            y += LIST_ROW_H;
+        }
+        for (Map.Entry<String, Long> entry : topEntries(stats.items(), STATS_TOP_ITEMS)) {
+            addLabel(leftCol + 4, y, "§c" + entry.getValue() + " §7" + entry.getKey());
+            y += LIST_ROW_H;
+        }
+        int leftBottom = y;
+
+        y = columnsY;
+        addLabel(rightCol, y, "§fProfiles");
+        y += LIST_ROW_H;
+        for (Map.Entry<String, Long> entry : topEntries(stats.profiles(), Integer.MAX_VALUE)) {
+            addLabel(rightCol + 4, y, "§c" + entry.getValue() + " §7" + entry.getKey());
+            y += LIST_ROW_H;
+        }
+        y += 6;
+        addLabel(rightCol, y, "§fSessions");
+        y += LIST_ROW_H;
+        List<Long> sessions = new ArrayList<>(stats.sessions().keySet());
+        for (int i = sessions.size() - 1; i >= Math.max(0, sessions.size() - STATS_SESSIONS); i--) {
+            long start = sessions.get(i);
+            addLabel(rightCol + 4, y, "§c" + stats.sessions().get(start) + " §7"
+                    + PROFILE_DATE_FORMAT.format(Instant.ofEpochMilli(start))
+                    + (start == stats.currentSession() ? " §a(now)" : ""));
+            y += LIST_ROW_H;
+        }
+
+        finishLayout(Math.max(leftBottom, y) + 40);
     }
 
-    private List<String> listProfiles() {
-        try {
-            Path dir = getConfigDir();
-            if (!Files.exists(dir)) return List.of();
-            return Files.list(dir)
-                    .filter(p -> p.toString().endsWith(".properties"))
-                    .map(p -> p.getFileName().toString().replace(".properties", ""))
-                    .filter(n -> !n.equals("default"))
-                    .sorted()
-                    .collect(Collectors.toList());
-        } catch (IOException e) {
-            e.printStackTrace();
-            return List.of();
+    private static List<Map.Entry<String, Long>> topEntries(Map<String, Long> counts, int limit) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private void layoutProfileRows() {
+        if (currentTab != TAB_PROFILES || profileRows == null) return;
+        int viewBottom = height - VIEW_BOTTOM_MARGIN;
+        int first = profileRows.firstFullyVisible(scrollOffset, VIEW_TOP);
+        for (int k = 0; k < profileRowIndex.length; k++) {
+            int index = first + k;
+            int rowY = profileRows.rowY(index, scrollOffset);
+            boolean visible = index < profileRows.size() && rowY + LIST_ROW_H <= viewBottom;
+            profileRowIndex[k] = index;
+            for (int b = k * 2; b <= k * 2 + 1; b++) {
+                profileRowPool[b].visible = visible;
+                profileRowPool[b].setY(rowY);
+            }
         }
     }
 
-    private Path getConfigDir() {
-        return net.fabricmc.loader.api.FabricLoader.getInstance()
-                .getConfigDir().resolve("inventory-cleaner");
+    private List<ProfileRepository.Entry> listProfiles() {
+        return config.getProfiles().stream()
+                .filter(p -> !p.name().equals("default"))
+                .collect(Collectors.toList());
     }
 
     private void saveProfile(String name) {
@@ -401,7 +710,19 @@ public class InventoryCleanerScreen extends Screen {
         }
         config.saveConfiguration(name);
         setProfileFeedback("§aSaved profile: §f" + name, 80);
-        init();
+    }
+
+    private void exportProfile(String name) {
+        if (name.isEmpty()) {
+            setProfileFeedback("§cEnter a profile name first!", 80);
+            return;
+        }
+        if (!name.matches("[\\w\\-. ]+")) {
+            setProfileFeedback("§cName may only contain letters, digits, -, _, . and spaces", 100);
+            return;
+        }
+        config.exportConfiguration(name);
+        setProfileFeedback("§aExported §f" + name + ".properties", 80);
     }
 
     private void loadProfile(String name) {
@@ -412,12 +733,11 @@ public class InventoryCleanerScreen extends Screen {
         boolean ok = config.loadConfiguration(name);
         if (ok) setProfileFeedback("§aLoaded profile: §f" + name, 80);
         else setProfileFeedback("§cProfile not found: §f" + name, 80);
-        init();
     }
 
     private void deleteProfile(String name) {
         try {
-            Files.deleteIfExists(getConfigDir().resolve(name + ".properties"));
+            config.deleteProfile(name);
             setProfileFeedback("§eDeleted profile: §f" + name, 80);
         } catch (IOException e) {
             e.printStackTrace();
@@ -425,6 +745,35 @@ public class InventoryCleanerScreen extends Screen {
         }
     }
 
+    private void addBindButton(int x, int y, String label, Supplier<String> place) {
+        ButtonWidget btn = ButtonWidget.builder(Text.literal(label), b -> {
+                    String key = place.get();
+                    String name = profileNameField.getText().trim();
+                    if (name.isEmpty()) {
+                        setProfileFeedback("§cEnter a profile name first!", 80);
+                        return;
+                    }
+                    if (config.getProfiles().stream().noneMatch(p -> p.name().equals(name))) {
+                        setProfileFeedback("§cProfile not found: §f" + name, 80);
+                        return;
+                    }
+                    if (config.toggleBinding(key, name)) setProfileFeedback("§aBound §f" + name + " §ato §f" + key, 100);
+                    else setProfileFeedback("§eUnbound §f" + key, 80);
+                }).dimensions(x, y, 150, 20)
+                .build();
+        Runnable update = () -> {
+            String key = place.get();
+            String tooltip = key == null
+                    ? "Join a world to bind profiles to it."
+                    : "Switch to the typed profile automatically at " + key + ". Click again to unbind.";
+            btn.setTooltip(Tooltip.of(Text.literal("§c" + tooltip)));
+            btn.active = key != null;
+        };
+        update.run();
+        addScrollable(btn);
+        onChange(ConfigChanges.BINDINGS, update);
+    }
+
     private void setProfileFeedback(String msg, int ticks) {
         profileFeedback = msg;
         profileFeedbackTimer = ticks;
@@ -432,6 +781,7 @@ public class InventoryCleanerScreen extends Screen {
 
     @Override
     public void render(DrawContext ctx, int mouseX, int mouseY, float delta) {
+        applyChanges();
         renderInGameBackground(ctx);
         hoverTooltip = null;
 
@@ -446,6 +796,7 @@ public class InventoryCleanerScreen extends Screen {
             case TAB_ITEMS -> renderInventoryGrid(ctx, mouseX, mouseY, true);
             case TAB_LOCKS -> renderInventoryGrid(ctx, mouseX, mouseY, false);
             case TAB_PROFILES -> renderProfilesBackground(ctx, mouseX, mouseY);
+            case TAB_STATS -> renderStatsBackground(ctx);
         }
 
         super.render(ctx, mouseX, mouseY, delta);
@@ -459,16 +810,18 @@ public class InventoryCleanerScreen extends Screen {
         int panelW = 325;
         int panelX = cx - panelW / 2;
 
-        ctx.enableScissor(0, 58, width, height - 32);
+        ctx.enableScissor(0, VIEW_TOP, width, height - VIEW_BOTTOM_MARGIN);
 
-        int profCount = listProfiles().size();
+        int profCount = shownProfiles.size();
         int listH = Math.max(LIST_ROW_H, (profCount == 0 ? 1 : profCount) * (LIST_ROW_H + 2));
         int y1 = 70 - scrollOffset;
-        int panelH = SPACING_Y + TITLE_HEIGHT + 10 + listH + 6;
+        int panelH = SPACING_Y * 2 + 4 + TITLE_HEIGHT + 10 + listH + 6;
         drawPanel(ctx, panelX, y1 - TITLE_HEIGHT - 6, panelW, panelH);
         ctx.drawTextWithShadow(textRenderer, "§c§l» §fSaved Profiles",
                 panelX + 8, y1 - TITLE_HEIGHT, 0xFFFFFFFF);
 
+        profileRows.render(ctx, scrollOffset, VIEW_TOP, height - VIEW_BOTTOM_MARGIN);
+
         ctx.disableScissor();
 
         ctx.drawCenteredTextWithShadow(textRenderer,
@@ -482,25 +835,39 @@ public class InventoryCleanerScreen extends Screen {
         drawScrollbar(ctx);
     }
 
+    private void renderStatsBackground(DrawContext ctx) {
+        int cx = width / 2;
+        int panelW = 325;
+        int panelX = cx - panelW / 2;
+
+        ctx.enableScissor(0, VIEW_TOP, width, height - VIEW_BOTTOM_MARGIN);
+        int y1 = 70 - scrollOffset;
+        int panelH = Math.max(SPACING_Y, contentHeight - 40 - 70) + TITLE_HEIGHT + 12;
+        drawPanel(ctx, panelX, y1 - TITLE_HEIGHT - 6, panelW, panelH);
+        ctx.drawTextWithShadow(textRenderer, "§c§l» §fThrow Statistics",
+                panelX + 8, y1 - TITLE_HEIGHT, 0xFFFFFFFF);
+        ctx.disableScissor();
+
+        drawScrollbar(ctx);
+    }
+
     private void renderSettingsBackground(DrawContext ctx, int mouseX, int mouseY, float delta) {
         int cx = width / 2;
         int panelW = 325;
         int panelX = cx - panelW / 2;
 
-        ctx.enableScissor(0, 58, width, height - 32);
+        ctx.enableScissor(0, VIEW_TOP, width, height - VIEW_BOTTOM_MARGIN);
 
-        int itemCount = config.getItemsToThrow().size();
-        int slotCount = config.getLockedSlots().size();
-        int itemListH = Math.max(LIST_ROW_H, (itemCount == 0 ? 1 : itemCount) * LIST_ROW_H);
-        int slotListH = Math.max(LIST_ROW_H, (slotCount == 0 ? 1 : slotCount) * LIST_ROW_H);
+        int itemListH = listHeight(itemRows);
+        int slotListH = listHeight(lockRows);
 
         int y1 = 70 - scrollOffset;
-        int genH = SPACING_Y * 2 + TITLE_HEIGHT + 10;
+        int genH = SPACING_Y * 4 + TITLE_HEIGHT + 10;
         drawPanel(ctx, panelX, y1 - TITLE_HEIGHT - 6, panelW, genH);
         ctx.drawTextWithShadow(textRenderer, "§c§l» §fGeneral Settings",
                 panelX + 8, y1 - TITLE_HEIGHT, 0xFFFFFFFF);
 
-        int y2 = y1 + SPACING_Y * 2 + SECTION_MARGIN;
+        int y2 = y1 + SPACING_Y * 4 + SECTION_MARGIN;
         int panel2H = SPACING_Y + TITLE_HEIGHT + 10 + itemListH + 6;
         drawPanel(ctx, panelX, y2 - TITLE_HEIGHT - 6, panelW, panel2H);
         ctx.drawTextWithShadow(textRenderer, "§c§l» §fList Management",
@@ -512,6 +879,9 @@ public class InventoryCleanerScreen extends Screen {
         ctx.drawTextWithShadow(textRenderer, "§c§l» §fProtection",
                 panelX + 8, y3 - TITLE_HEIGHT, 0xFFFFFFFF);
 
+        itemRows.render(ctx, scrollOffset, VIEW_TOP, height - VIEW_BOTTOM_MARGIN);
+        lockRows.render(ctx, scrollOffset, VIEW_TOP, height - VIEW_BOTTOM_MARGIN);
+
         ctx.disableScissor();
         drawScrollbar(ctx);
     }
@@ -580,30 +950,23 @@ public class InventoryCleanerScreen extends Screen {
         ctx.fill(fx, dropY, fx + 1, fy - 2, 0xFF880000);
         ctx.fill(fx + fw - 1, dropY, fx + fw, fy - 2, 0xFF880000);
 
+        dropdownModel.update(suggestions, config.getRules(), textRenderer, fw - 12);
         for (int i = 0; i < visible; i++) {
             int idx = i + suggestionScroll;
             if (idx >= suggestions.size()) break;
-            String id = suggestions.get(idx);
             int sy = dropY + 2 + i * SUGGESTION_H;
             boolean hovered = mouseX >= fx && mouseX < fx + fw - 8
                     && mouseY >= sy && mouseY < sy + SUGGESTION_H;
             if (hovered) ctx.fill(fx + 1, sy, fx + fw - 1, sy + SUGGESTION_H, 0x80FF4444);
-            boolean inList = config.getItemsToThrow().stream()
-                    .anyMatch(item -> Registries.ITEM.getId(item).toString().equals(id));
-            int textColor = inList ? 0xFF55FFFF : 0xFFCCCCCC;
-            String display = id;
-            while (display.length() > 4 && textRenderer.getWidth(display) > fw - 12)
-                display = display.substring(0, display.length() - 1);
-            if (!display.equals(id)) display += "…";
-            ctx.drawTextWithShadow(textRenderer, Text.literal(display), fx + 3, sy + 2, textColor);
+            ctx.drawTextWithShadow(textRenderer, dropdownModel.label(idx), fx + 3, sy + 2, dropdownModel.color(idx));
         }
 
         if (suggestions.size() > MAX_VISIBLE_SUGGESTIONS) {
             int ax = fx + fw - 8;
             if (suggestionScroll > 0)
-                ctx.drawTextWithShadow(textRenderer, Text.literal("▲"), ax, dropY + 2, 0xFFFF4444);
+                ctx.drawTextWithShadow(textRenderer, "▲", ax, dropY + 2, 0xFFFF4444);
             if (suggestionScroll + MAX_VISIBLE_SUGGESTIONS < suggestions.size())
-                ctx.drawTextWithShadow(textRenderer, Text.literal("▼"), ax, dropY + dropH - 10, 0xFFFF4444);
+                ctx.drawTextWithShadow(textRenderer, "▼", ax, dropY + dropH - 10, 0xFFFF4444);
         }
     }
 
@@ -615,8 +978,8 @@ public class InventoryCleanerScreen extends Screen {
                 ? playerInv[vanillaSlot] : ItemStack.EMPTY;
 
         boolean isActive = itemMode
-                ? (!stack.isEmpty() && config.getItemsToThrow().contains(stack.getItem()))
-                : config.getLockedSlots().contains(vanillaSlot);
+                ? (!stack.isEmpty() && config.isItemListed(stack.getItem()))
+                : config.isSlotLocked(vanillaSlot);
         boolean hovered = mouseX >= px && mouseX < px + SLOT_SIZE - 1
                 && mouseY >= py && mouseY < py + SLOT_SIZE - 1;
 
@@ -677,7 +1040,7 @@ public class InventoryCleanerScreen extends Screen {
                 if (idx >= 0 && idx < suggestions.size()) {
                     addItemById(suggestions.get(idx));
                     itemSearchField.setText("");
-                    suggestions.clear();
+                    clearSuggestions();
                     return true;
                 }
             }
@@ -725,12 +1088,9 @@ public class InventoryCleanerScreen extends Screen {
             ItemStack stack = (playerInv != null && vanillaSlot < playerInv.length)
                     ? playerInv[vanillaSlot] : ItemStack.EMPTY;
             if (stack.isEmpty()) return;
-            Item item = stack.getItem();
-            if (config.getItemsToThrow().contains(item)) config.getItemsToThrow().remove(item);
-            else config.getItemsToThrow().add(item);
+            config.toggleItem(stack.getItem());
         } else {
-            if (config.getLockedSlots().contains(vanillaSlot)) config.getLockedSlots().remove(vanillaSlot);
-            else config.getLockedSlots().add(vanillaSlot);
+            config.toggleSlotLock(vanillaSlot);
         }
         config.saveConfiguration();
     }
@@ -751,11 +1111,8 @@ public class InventoryCleanerScreen extends Screen {
             }
         }
 
-        if ((currentTab == TAB_SETTINGS || currentTab == TAB_PROFILES) && maxScroll > 0) {
-            int prev = scrollOffset;
-            scrollOffset = (int) Math.max(0, Math.min(maxScroll, scrollOffset - scrollY * 25));
-            int diff = prev - scrollOffset;
-            for (ClickableWidget w : scrollableWidgets) w.setY(w.getY() + diff);
+        if ((currentTab == TAB_SETTINGS || currentTab == TAB_PROFILES || currentTab == TAB_STATS) && maxScroll > 0) {
+            scrollTo((int) Math.max(0, Math.min(maxScroll, scrollOffset - scrollY * 25)));
             return true;
         }
         return super.mouseScrolled(mx, my, scrollX, scrollY);
@@ -768,6 +1125,10 @@ public class InventoryCleanerScreen extends Screen {
         else itemSearchFeedback = "";
         if (profileFeedbackTimer > 0) profileFeedbackTimer--;
         else profileFeedback = "";
+        if (tabs[TAB_PROFILES].built && shownProfilesVersion != config.getProfilesVersion())
+            pendingChanges |= ConfigChanges.PROFILES;
+        if (currentTab == TAB_STATS && statsFuture != null && !statsShown && statsFuture.isDone())
+            rebuildTab(TAB_STATS);
     }
 
     @Override
@@ -776,22 +1137,20 @@ public class InventoryCleanerScreen extends Screen {
         if (client != null) client.setScreen(parent);
     }
 
-    private void updateSuggestions(String query) {
+    private void clearSuggestions() {
         suggestions.clear();
-        if (query.isEmpty()) return;
-        String lq = query.toLowerCase();
-        Registries.ITEM.getIds().stream()
-                .filter(id -> id.getPath().contains(lq) || id.toString().contains(lq))
-                .map(Identifier::getPath)
-                .distinct()
-                .sorted((a, b) -> {
-                    boolean aS = a.startsWith(lq), bS = b.startsWith(lq);
-                    if (aS && !bS) return -1;
-                    if (!aS && bS) return 1;
-                    return a.compareTo(b);
-                })
-                .limit(40)
-                .forEach(suggestions::add);
+        dropdownModel.invalidate();
+    }
+
+    private void updateSuggestions(String query) {
+        clearSuggestions();
+        if (searchIndex == null || searchIndexedItems != Registries.ITEM.getIds().size()) {
+            List<String> ids = new ArrayList<>();
+            for (Identifier id : Registries.ITEM.getIds()) ids.add(id.toString());
+            searchIndex = new ItemSearchIndex(ids);
+            searchIndexedItems = ids.size();
+        }
+        suggestions.addAll(searchIndex.search(query, MAX_SUGGESTIONS));
     }
 
     private void addItemById(String rawId) {
@@ -799,6 +1158,18 @@ public class InventoryCleanerScreen extends Screen {
             setFeedback("§cType an item ID first!", 60);
             return;
         }
+        if (rawId.startsWith("@")) {
+            addContainerItem(rawId.substring(1).trim());
+            return;
+        }
+        if (rawId.contains("=")) {
+            addQuota(rawId);
+            return;
+        }
+        if (rawId.startsWith("#")) {
+            addTagById(rawId.substring(1));
+            return;
+        }
         if (!rawId.contains(":")) rawId = "minecraft:" + rawId;
         Identifier id;
         try {
@@ -816,12 +1187,60 @@ public class InventoryCleanerScreen extends Screen {
             setFeedback("§cUnknown item: " + rawId, 80);
             return;
         }
-        if (config.getItemsToThrow().contains(item)) {
-            config.getItemsToThrow().remove(item);
-            setFeedback("§eRemoved §f" + rawId, 60);
+        if (config.toggleItem(item)) setFeedback("§aAdded §f" + rawId, 60);
+        else setFeedback("§eRemoved §f" + rawId, 60);
+        config.saveConfiguration();
+    }
+
+    private void addQuota(String spec) {
+        ItemQuota quota;
+        try {
+            quota = ItemQuota.parse(spec);
+        } catch (IllegalArgumentException e) {
+            setFeedback("§cInvalid quota: " + spec, 80);
+            return;
+        }
+        if (quota.equals(config.getQuota(quota.target()))) {
+            config.removeQuota(quota.target());
+            setFeedback("§eRemoved quota §f" + quota.target(), 60);
         } else {
-            config.getItemsToThrow().add(item);
-            setFeedback("§aAdded §f" + rawId, 60);
+            config.putQuota(quota);
+            setFeedback("§aKeeping §f" + quota.limit() + " §aof §f" + quota.target(), 80);
+        }
+        config.saveConfiguration();
+    }
+
+    private void addContainerItem(String target) {
+        boolean tag = target.startsWith("#");
+        String id = tag ? target.substring(1) : target;
+        if (!id.contains(":")) id = "minecraft:" + id;
+        Identifier parsed = Identifier.tryParse(id);
+        if (parsed == null || (!tag && !Registries.ITEM.containsId(parsed))) {
+            setFeedback("§cUnknown item: " + target, 80);
+            return;
+        }
+        target = tag ? "#" + id : id;
+        if (config.toggleContainerItem(target)) setFeedback("§aContainers: added §f" + target, 60);
+        else setFeedback("§eContainers: removed §f" + target, 60);
+        config.saveConfiguration();
+    }
+
+    private int listEntryCount() {
+        return config.getItemsToThrow().size() + config.getItemTags().size() + config.getQuotas().size()
+                + config.getContainerItems().size();
+    }
+
+    private void addTagById(String tag) {
+        if (!tag.contains(":")) tag = "minecraft:" + tag;
+        if (Identifier.tryParse(tag) == null) {
+            setFeedback("§cInvalid tag: #" + tag, 80);
+            return;
+        }
+        if (config.toggleItemTag(tag)) {
+            int size = config.getTagSize(tag);
+            setFeedback(size == 0 ? "§eAdded §f#" + tag + " §e(no items yet)" : "§aAdded §f#" + tag + " §7(" + size + " items)", 80);
+        } else {
+            setFeedback("§eRemoved §f#" + tag, 60);
         }
         config.saveConfiguration();
     }
@@ -840,11 +1259,8 @@ public class InventoryCleanerScreen extends Screen {
     }
 
     private ButtonWidget addTabButton(String label, int tabIndex, int x, int y, int w, int h) {
-        ButtonWidget btn = ButtonWidget.builder(tabText(label, tabIndex), b -> {
-            currentTab = tabIndex;
-            scrollOffset = 0;
-            init();
-        }).dimensions(x, y, w, h).build();
+        ButtonWidget btn = ButtonWidget.builder(tabText(label, tabIndex), b -> switchTab(tabIndex))
+                .dimensions(x, y, w, h).build();
         addDrawableChild(btn);
         return btn;
     }
@@ -855,12 +1271,17 @@ public class InventoryCleanerScreen extends Screen {
                 : Text.literal(label).formatted(Formatting.GRAY);
     }
 
+    private <T extends ClickableWidget> T addTabChild(T w) {
+        tabs[currentTab].widgets.add(w);
+        return addDrawableChild(w);
+    }
+
     private void addScrollable(ClickableWidget w) {
         scrollableWidgets.add(w);
-        addDrawableChild(w);
+        addTabChild(w);
     }
 
-    private void addLabel(int x, int y, String text) {
+    private ClickableWidget addLabel(int x, int y, String text) {
         ClickableWidget label = new ClickableWidget(x, y, 150, 20, Text.literal(text)) {
             @Override
             protected void renderWidget(DrawContext ctx, int mouseX, int mouseY, float delta) {
@@ -872,18 +1293,18 @@ public class InventoryCleanerScreen extends Screen {
             }
         };
         addScrollable(label);
+        return label;
     }
 
-    private void addToggle(int x, int y, String label, String tooltip, boolean value, Consumer<Boolean> action) {
-        boolean[] state = {value};
-        ButtonWidget btn = ButtonWidget.builder(toggleText(label, state[0]), b -> {
-                    state[0] = !state[0];
-                    action.accept(state[0]);
-                    b.setMessage(toggleText(label, state[0]));
+    private void addToggle(int x, int y, String label, String tooltip, BooleanSupplier value, Consumer<Boolean> action) {
+        ButtonWidget btn = ButtonWidget.builder(toggleText(label, value.getAsBoolean()), b -> {
+                    action.accept(!value.getAsBoolean());
+                    b.setMessage(toggleText(label, value.getAsBoolean()));
                 }).dimensions(x, y, 150, 20)
                 .tooltip(Tooltip.of(Text.literal("§c" + tooltip)))
                 .build();
         addScrollable(btn);
+        onChange(ConfigChanges.SETTINGS, () -> btn.setMessage(toggleText(label, value.getAsBoolean())));
     }
 
 
@@ -900,8 +1321,16 @@ public class InventoryCleanerScreen extends Screen {
                         : Text.literal("OFF").formatted(Formatting.DARK_GRAY));
     }
 
-    private void addSlider(int x, int y, String label, float cur, float min, float max, Consumer<Float> action) {
-        addScrollable(new GenericSlider(x, y, 150, 20, label, cur, min, max, action));
+    private void addSlider(int x, int y, String label, Supplier<Float> cur, float min, float max,
+                           Consumer<Float> action) {
+        addSlider(x, y, label, "%.2fs", cur, min, max, action);
+    }
+
+    private void addSlider(int x, int y, String label, String format, Supplier<Float> cur, float min, float max,
+                           Consumer<Float> action) {
+        GenericSlider slider = new GenericSlider(x, y, 150, 20, label, format, cur.get(), min, max, action);
+        addScrollable(slider);
+        onChange(ConfigChanges.SETTINGS, () -> slider.setCurrent(cur.get()));
     }
 
     private void drawPanel(DrawContext ctx, int x, int y, int w, int h) {
@@ -923,26 +1352,71 @@ public class InventoryCleanerScreen extends Screen {
         for (ClickableWidget w : scrollableWidgets) w.setY(w.getY() - scrollOffset);
     }
 
+    /**
+     * Ends a tab build: scrolls the new widgets to the tab's offset and sets its content height.
+     */
+    private void finishLayout(int height) {
+        applyScrollOffset();
+        setContentHeight(height);
+    }
+
+    private void setContentHeight(int height) {
+        contentHeight = height;
+        maxScroll = Math.max(0, contentHeight - (this.height - 90));
+        scrollTo(Math.min(scrollOffset, maxScroll));
+    }
+
+    private void scrollTo(int offset) {
+        int diff = scrollOffset - offset;
+        scrollOffset = offset;
+        if (diff != 0) for (ClickableWidget w : scrollableWidgets) w.setY(w.getY() + diff);
+        layoutProfileRows();
+    }
+
+    /**
+     * Widgets of one tab, built the first time the tab is shown and kept across tab switches. Bindings refresh
+     * parts of it when the matching {@link ConfigChanges} arrive; changes made while the tab is hidden are applied
+     * when it is opened again.
+     */
+    private static final class TabContent {
+        final List<ClickableWidget> widgets = new ArrayList<>();
+        final List<ClickableWidget> scrollable = new ArrayList<>();
+        final List<ModelBinding> bindings = new ArrayList<>();
+        int scrollOffset, maxScroll, contentHeight;
+        int staleChanges;
+        boolean built;
+    }
+
+    private record ModelBinding(int changes, Runnable refresh) {
+    }
+
     private static class GenericSlider extends SliderWidget {
         private final String label;
+        private final String format;
         private final float min, max;
         private final Consumer<Float> action;
 
         GenericSlider(int x, int y, int w, int h,
-                      String label, float cur, float min, float max,
+                      String label, String format, float cur, float min, float max,
                       Consumer<Float> action) {
             super(x, y, w, h, Text.empty(), (cur - min) / (max - min));
             this.label = label;
+            this.format = format;
             this.min = min;
             this.max = max;
             this.action = action;
             updateMessage();
         }
 
+        void setCurrent(float cur) {
+            value = Math.max(0, Math.min(1, (cur - min) / (max - min)));
+            updateMessage();
+        }
+
         @Override
         protected void updateMessage() {
             float val = min + (float) (value * (max - min));
-            setMessage(Text.literal(label + ": §c" + String.format("%.2fs", val)));
+            setMessage(Text.literal(label + ": §c" + String.format(format, val)));
         }
 
         @Override
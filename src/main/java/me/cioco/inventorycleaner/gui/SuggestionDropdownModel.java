@@ -0,0 +1,72 @@
+package me.cioco.inventorycleaner.gui;
+
+import me.cioco.inventorycleaner.core.RuleTable;
+import net.minecraft.client.font.TextRenderer;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.Identifier;
+
+import java.util.List;
+
+class SuggestionDropdownModel {
+
+    private static final int COLOR_IN_LIST = 0xFF55FFFF;
+    private static final int COLOR_NOT_IN_LIST = 0xFFCCCCCC;
+    private static final String VANILLA_PREFIX = "minecraft:";
+
+    private boolean suggestionsDirty = true;
+    private int[] rawIds = new int[0];
+    private String[] labels = new String[0];
+    private int[] colors = new int[0];
+    private RuleTable rules;
+    private int labelWidth = -1;
+
+    void invalidate() {
+        suggestionsDirty = true;
+    }
+
+    void update(List<String> suggestions, RuleTable currentRules, TextRenderer textRenderer, int width) {
+        boolean rebuildLabels = suggestionsDirty || width != labelWidth;
+        if (suggestionsDirty) {
+            int size = suggestions.size();
+            rawIds = new int[size];
+            labels = new String[size];
+            colors = new int[size];
+            for (int i = 0; i < size; i++) rawIds[i] = resolveRawId(suggestions.get(i));
+            rules = null;
+            suggestionsDirty = false;
+        }
+
+        if (rebuildLabels) {
+            for (int i = 0; i < labels.length; i++) {
+                String id = displayId(suggestions.get(i));
+                String trimmed = textRenderer.trimToWidth(id, width);
+                labels[i] = trimmed.length() < id.length() ? trimmed + "…" : id;
+            }
+            labelWidth = width;
+        }
+
+        if (currentRules != rules) {
+            for (int i = 0; i < colors.length; i++)
+                colors[i] = currentRules.containsItem(rawIds[i]) ? COLOR_IN_LIST : COLOR_NOT_IN_LIST;
+            rules = currentRules;
+        }
+    }
+
+    String label(int index) {
+        return labels[index];
+    }
+
+    int color(int index) {
+        return colors[index];
+    }
+
+    private static String displayId(String suggestion) {
+        return suggestion.startsWith(VANILLA_PREFIX) ? suggestion.substring(VANILLA_PREFIX.length()) : suggestion;
+    }
+
+    private static int resolveRawId(String suggestion) {
+        Identifier id = Identifier.tryParse(suggestion);
+        if (id == null || !Registries.ITEM.containsId(id)) return -1;
+        return Registries.ITEM.getRawId(Registries.ITEM.get(id));
+    }
+}
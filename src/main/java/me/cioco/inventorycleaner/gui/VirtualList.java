@@ -0,0 +1,64 @@
+package me.cioco.inventorycleaner.gui;
+
+import net.minecraft.client.gui.DrawContext;
+
+class VirtualList {
+
+    private final int x;
+    private final int contentY;
+    private final int width;
+    private final int rowHeight;
+    private final int size;
+    private final RowRenderer renderer;
+
+    VirtualList(int x, int contentY, int width, int rowHeight, int size, RowRenderer renderer) {
+        this.x = x;
+        this.contentY = contentY;
+        this.width = width;
+        this.rowHeight = rowHeight;
+        this.size = size;
+        this.renderer = renderer;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int getHeight() {
+        return size * rowHeight;
+    }
+
+    int rowY(int index, int scrollOffset) {
+        return contentY - scrollOffset + index * rowHeight;
+    }
+
+    int firstVisible(int scrollOffset, int viewTop) {
+        int top = contentY - scrollOffset;
+        return Math.max(0, Math.floorDiv(viewTop - top, rowHeight));
+    }
+
+    int firstFullyVisible(int scrollOffset, int viewTop) {
+        int top = contentY - scrollOffset;
+        return Math.max(0, Math.floorDiv(viewTop - top + rowHeight - 1, rowHeight));
+    }
+
+    int lastVisible(int scrollOffset, int viewBottom) {
+        int top = contentY - scrollOffset;
+        return Math.min(size - 1, Math.floorDiv(viewBottom - top - 1, rowHeight));
+    }
+
+    static int capacity(int viewHeight, int rowHeight) {
+        return viewHeight / rowHeight + 2;
+    }
+
+    void render(DrawContext ctx, int scrollOffset, int viewTop, int viewBottom) {
+        int last = lastVisible(scrollOffset, viewBottom);
+        for (int i = firstVisible(scrollOffset, viewTop); i <= last; i++)
+            renderer.render(ctx, i, x, rowY(i, scrollOffset), width);
+    }
+
+    @FunctionalInterface
+    interface RowRenderer {
+        void render(DrawContext ctx, int index, int x, int y, int width);
+    }
+}
@@ -0,0 +1,73 @@
+package me.cioco.inventorycleaner.mixin;
+
+import me.cioco.inventorycleaner.config.InventoryCleaner;
+import me.cioco.inventorycleaner.core.SlotSelector;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.item.ItemStack;
+import net.minecraft.network.packet.s2c.play.InventoryS2CPacket;
+import net.minecraft.network.packet.s2c.play.ScreenHandlerSlotUpdateS2CPacket;
+import net.minecraft.network.packet.s2c.play.SetPlayerInventoryS2CPacket;
+import net.minecraft.registry.Registries;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.List;
+
+@Mixin(ClientPlayNetworkHandler.class)
+public abstract class ClientPlayNetworkHandlerMixin {
+
+    @Inject(method = "onScreenHandlerSlotUpdate", at = @At("RETURN"))
+    private void inventorycleaner$onSlotUpdate(ScreenHandlerSlotUpdateS2CPacket packet, CallbackInfo ci) {
+        if (packet.getSyncId() == 0) {
+            InventoryCleaner.getSlotTracker().markSlot(packet.getSlot());
+            long now = System.nanoTime();
+            InventoryCleaner.getTelemetry().onSlotUpdate(packet.getSlot(), packet.getStack().isEmpty(), now);
+            InventoryCleaner.getThrowLimiter().onRevision(packet.getRevision());
+            InventoryCleaner.getThrowLimiter().onSlotUpdate(packet.getSlot(), packet.getStack().isEmpty(), now);
+        } else {
+            InventoryCleaner.getSlotTracker().markAll();
+            InventoryCleaner.getContainerScanner().markSlot(packet.getSlot());
+        }
+    }
+
+    @Inject(method = "onSetPlayerInventory", at = @At("RETURN"))
+    private void inventorycleaner$onSetPlayerInventory(SetPlayerInventoryS2CPacket packet, CallbackInfo ci) {
+        int slotId = inventorycleaner$toHandlerSlot(packet.slot());
+        InventoryCleaner.getSlotTracker().markSlot(slotId);
+        long now = System.nanoTime();
+        InventoryCleaner.getTelemetry().onSlotUpdate(slotId, packet.contents().isEmpty(), now);
+        InventoryCleaner.getThrowLimiter().onSlotUpdate(slotId, packet.contents().isEmpty(), now);
+    }
+
+    private static int inventorycleaner$toHandlerSlot(int index) {
+        if (index < 9) return index + 36;
+        if (index < 36) return index;
+        if (index < 40) return 8 - (index - 36);
+        return 45;
+    }
+
+    @Inject(method = "onInventory", at = @At("RETURN"))
+    private void inventorycleaner$onInventory(InventoryS2CPacket packet, CallbackInfo ci) {
+        InventoryCleaner.getSlotTracker().markAll();
+        if (packet.syncId() != 0) {
+            InventoryCleaner.getContainerScanner().markAll();
+            return;
+        }
+        List<ItemStack> contents = packet.contents();
+        SlotSelector.SlotView view = new SlotSelector.SlotView() {
+            @Override
+            public int rawItemId(int slotId) {
+                ItemStack stack = slotId < contents.size() ? contents.get(slotId) : ItemStack.EMPTY;
+                return stack.isEmpty() ? -1 : Registries.ITEM.getRawId(stack.getItem());
+            }
+
+            @Override
+            public int count(int slotId) {
+                return slotId < contents.size() ? contents.get(slotId).getCount() : 0;
+            }
+        };
+        InventoryCleaner.getThrowLimiter().onResync(packet.revision(), view, System.nanoTime());
+    }
+}
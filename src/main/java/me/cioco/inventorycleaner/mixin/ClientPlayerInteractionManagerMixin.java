@@ -0,0 +1,21 @@
+package me.cioco.inventorycleaner.mixin;
+
+import me.cioco.inventorycleaner.config.InventoryCleaner;
+import net.minecraft.client.network.ClientPlayerInteractionManager;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.screen.slot.SlotActionType;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ClientPlayerInteractionManager.class)
+public abstract class ClientPlayerInteractionManagerMixin {
+
+    @Inject(method = "clickSlot", at = @At("RETURN"))
+    private void inventorycleaner$onClickSlot(int syncId, int slotId, int button, SlotActionType actionType,
+                                              PlayerEntity player, CallbackInfo ci) {
+        if (syncId == 0 && actionType == SlotActionType.THROW) InventoryCleaner.getSlotTracker().markSlot(slotId);
+        else InventoryCleaner.getSlotTracker().markAll();
+    }
+}